@@ -0,0 +1,97 @@
+package com.konloch.vortex;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A typed key for per-connection state stored directly on the {@link Client}.
+ * <p>
+ * Every key is assigned its own slot when it is created, so attachments are read and written with a plain array
+ * access instead of a map lookup. Keys are meant to be created once and stored in a static field.
+ *
+ * @param <T> the type of the attached value
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public final class AttachmentKey<T>
+{
+	private static final List<AttachmentKey<?>> KEYS = new CopyOnWriteArrayList<>();
+
+	private final String name;
+	private final Consumer<T> recycler;
+	private final int index;
+
+	/**
+	 * Construct a new attachment key, the attached value is cleared when a pooled client is recycled
+	 * @param name the name of the key, used for debugging
+	 */
+	public AttachmentKey(String name)
+	{
+		this(name, null);
+	}
+
+	/**
+	 * Construct a new attachment key whose value is kept when a pooled client is recycled
+	 * @param name the name of the key, used for debugging
+	 * @param recycler resets the attached value so the next connection can reuse it, or null to clear the value instead
+	 */
+	public AttachmentKey(String name, Consumer<T> recycler)
+	{
+		this.name = name;
+		this.recycler = recycler;
+
+		synchronized (KEYS)
+		{
+			this.index = KEYS.size();
+			KEYS.add(this);
+		}
+	}
+
+	/**
+	 * Returns the name of the key
+	 * @return the name of the key
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Returns the slot this key uses on every client
+	 * @return the slot this key uses on every client
+	 */
+	int getIndex()
+	{
+		return index;
+	}
+
+	/**
+	 * Recycle every attachment in a pooled client's attachment slots, values without a recycler are cleared
+	 * @param attachments the attachment slots
+	 */
+	@SuppressWarnings("unchecked")
+	static void recycle(Object[] attachments)
+	{
+		for(int i = 0; i < attachments.length; i++)
+		{
+			Object value = attachments[i];
+
+			if(value == null)
+				continue;
+
+			AttachmentKey<Object> key = (AttachmentKey<Object>) KEYS.get(i);
+
+			if(key.recycler != null)
+				key.recycler.accept(value);
+			else
+				attachments[i] = null;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "AttachmentKey[" + name + "]";
+	}
+}
@@ -0,0 +1,70 @@
+package com.konloch.vortex;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed size direct buffers shared by every client's {@link InputBuffer}.
+ * Chunks can be returned from any thread, since handlers may consume input on a thread that stole them
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+class ChunkPool
+{
+	private final int chunkSize;
+	private final int maxPooled;
+	private final Queue<ByteBuffer> chunks = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	/**
+	 * Construct a new chunk pool
+	 * @param chunkSize the size of every chunk in bytes
+	 * @param maxPooled the maximum amount of idle chunks kept in the pool
+	 */
+	ChunkPool(int chunkSize, int maxPooled)
+	{
+		this.chunkSize = chunkSize;
+		this.maxPooled = maxPooled;
+	}
+
+	/**
+	 * Take an empty chunk from the pool, allocating a new one if the pool is empty
+	 * @return an empty chunk
+	 */
+	ByteBuffer take()
+	{
+		ByteBuffer chunk = chunks.poll();
+
+		if(chunk == null)
+			return ByteBuffer.allocateDirect(chunkSize);
+
+		pooled.decrementAndGet();
+		return chunk;
+	}
+
+	/**
+	 * Return a chunk to the pool, it is dropped if the pool is full
+	 * @param chunk the chunk to return
+	 */
+	void give(ByteBuffer chunk)
+	{
+		if(pooled.get() >= maxPooled)
+			return;
+
+		((java.nio.Buffer) chunk).clear();
+		pooled.incrementAndGet();
+		chunks.add(chunk);
+	}
+
+	/**
+	 * Returns the size of every chunk
+	 * @return the size of every chunk in bytes
+	 */
+	int getChunkSize()
+	{
+		return chunkSize;
+	}
+}
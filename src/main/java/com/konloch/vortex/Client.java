@@ -1,10 +1,16 @@
 package com.konloch.vortex;
 
+import com.konloch.vortex.interfaces.ClientRunnable;
+import com.konloch.vortex.interfaces.Transport;
+import com.konloch.vortex.transport.SocketTransport;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.Socket;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 /**
  * @author Konloch
@@ -15,16 +21,30 @@ public class Client
 	private final ByteArrayOutputStream inputBuffer = new ByteArrayOutputStream();
 	private final ByteArrayOutputStream outputBuffer = new ByteArrayOutputStream();
 	private final Server server;
-	private final SocketChannel socket;
-	private final long uid;
-	private final String remoteAddress;
+	private Transport transport;
+	private long uid;
+	private String remoteAddress;
+	private Object[] attachments = new Object[0];
 	private long lastNetworkActivityRead;
 	private long lastNetworkActivityWrite;
 	private boolean inputRead = true;
 	private boolean outputWrite;
+	private boolean endOfStream;
+	private boolean corked;
+	private long corkedSince;
 	private int state;
+	private boolean handlerBusy;
 	private int outputBufferProgress;
 	private byte[] outputBufferCache;
+	private RequestPipeline pipeline;
+	private CompressionStage compression;
+	private OutputSpill outputSpill;
+	private IO io;
+	private boolean admitted;
+	private InetAddress admittedAddress;
+	private TrafficRecorder trafficRecorder;
+	private ClientRunnable requestHandler;
+	private InputBuffer input;
 	
 	/**
 	 * Construct a new socket client
@@ -34,31 +54,290 @@ public class Client
 	 */
 	public Client(Server server, SocketChannel socket, long uid)
 	{
-		this.uid = uid;
-		this.socket = socket;
+		this(server, socket == null ? null : new SocketTransport(socket), uid);
+	}
+	
+	/**
+	 * Construct a new client
+	 * @param server the socket server this client will be bound to
+	 * @param transport the transport this client is using for communication
+	 * @param uid the unique user identifier this socket client is assigned
+	 */
+	public Client(Server server, Transport transport, long uid)
+	{
 		this.server = server;
+		open(transport, uid);
+	}
+	
+	/**
+	 * Bind this client to a newly accepted connection, this is used both on construction and when a pooled client is reused
+	 * @param transport the transport this client is using for communication
+	 * @param uid the unique user identifier this socket client is assigned
+	 */
+	void open(Transport transport, long uid)
+	{
+		this.uid = uid;
+		this.transport = transport;
 		this.lastNetworkActivityRead = this.lastNetworkActivityWrite = System.currentTimeMillis();
-		this.remoteAddress = resolveRemoteAddress();
+		this.remoteAddress = transport == null ? "" : transport.getRemoteAddress();
+		this.corked = server != null && server.isWriteCoalescing();
+		
+		if(server != null && server.isCompositeInput() && input == null)
+			input = new InputBuffer(server.getChunkPool());
+		
+		if(server != null && server.getCompression() != null)
+			setCompression(server.getCompression());
+	}
+	
+	/**
+	 * Reset every per-connection field so this client can be returned to the pool, this runs after {@link #disconnected()}
+	 */
+	void recycle()
+	{
+		inputBuffer.reset();
+		outputBuffer.reset();
+		outputBufferCache = null;
+		outputBufferProgress = 0;
+		inputRead = true;
+		outputWrite = false;
+		endOfStream = false;
+		corkedSince = 0;
+		state = 0;
+		handlerBusy = false;
+		pipeline = null;
+		requestHandler = null;
+		io = null;
+		transport = null;
+		AttachmentKey.recycle(attachments);
 	}
 	
 	/**
 	 * Write to a byte array the output buffer
+	 * <p>
+	 * If the client is corked the bytes are held until {@link #flush()} is called or the max write delay has passed
 	 * @param bytes any byte array
 	 */
 	public void write(byte[] bytes)
 	{
+		if(compression != null)
+		{
+			compression.encode(bytes, getOutputBuffer());
+		}
+		else
+		{
+			try
+			{
+				getOutputBuffer().write(bytes);
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+		
+		spillOutput();
+		
+		if(!corked)
+			setOutputWrite(true);
+		else if(!outputWrite && corkedSince == 0)
+			corkedSince = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Move the output buffer into the spill file once the pending output passes the spill threshold.
+	 * The output is always sent in the order of output buffer cache, spill file, then output buffer
+	 */
+	private void spillOutput()
+	{
+		if(server == null || server.getOutputSpillThreshold() <= 0)
+			return;
+		
+		if(outputSpill == null)
+		{
+			if(getPendingOutput() <= server.getOutputSpillThreshold())
+				return;
+		}
+		else if(outputBuffer.size() < server.getIOAmount())
+		{
+			//batch small writes on the heap before appending them to the spill file
+			return;
+		}
+		
 		try
 		{
-			getOutputBuffer().write(bytes);
+			if(outputSpill == null)
+				outputSpill = new OutputSpill(server.getOutputSpillDirectory());
+			
+			outputSpill.append(outputBuffer);
+			outputBuffer.reset();
 		}
 		catch (IOException e)
 		{
 			e.printStackTrace();
+			
+			//the output can no longer be sent in order
+			try
+			{
+				transport.close();
+			}
+			catch (IOException ex)
+			{
+				//ignore
+			}
+		}
+	}
+	
+	/**
+	 * Called by the IO thread with bytes read from the socket, they are decoded into the input buffer
+	 * @param bytes the bytes read
+	 * @param offset the offset to start from
+	 * @param length the amount of bytes read
+	 * @throws IOException thrown if the bytes could not be decoded
+	 */
+	void received(byte[] bytes, int offset, int length) throws IOException
+	{
+		if(compression != null)
+			compression.decode(bytes, offset, length, input != null ? input.asOutputStream() : getInputBuffer());
+		else if(input != null)
+			input.append(bytes, offset, length);
+		else
+			getInputBuffer().write(bytes, offset, length);
+	}
+	
+	/**
+	 * Called once the client has been disconnected and the onDisconnect handler has run, this releases any resources
+	 */
+	void disconnected()
+	{
+		if(compression != null)
+		{
+			compression.release();
+			compression = null;
 		}
 		
+		closeOutputSpill();
+		
+		if(input != null)
+			input.release();
+	}
+	
+	/**
+	 * Close and delete the spill file if there is one
+	 */
+	void closeOutputSpill()
+	{
+		if(outputSpill != null)
+		{
+			outputSpill.close();
+			outputSpill = null;
+		}
+	}
+	
+	/**
+	 * Release any corked output so it is sent on the next pass
+	 */
+	public void flush()
+	{
+		corkedSince = 0;
 		setOutputWrite(true);
 	}
 	
+	/**
+	 * Flush the corked output if auto flush is enabled or the max write delay has passed
+	 * @param now the current time in milliseconds
+	 */
+	void flushIfDue(long now)
+	{
+		if(corkedSince == 0 || outputWrite)
+			return;
+		
+		if(server.isAutoFlush() || now - corkedSince >= server.getMaxWriteDelay())
+			flush();
+	}
+	
+	/**
+	 * Returns true if corked output is waiting for the max write delay to pass
+	 * @return true if corked output is waiting to be flushed
+	 */
+	boolean isFlushPending()
+	{
+		return corkedSince != 0 && !outputWrite;
+	}
+	
+	/**
+	 * Moves any queued output into the output buffer cache, new writes will queue up behind it
+	 * @return the output buffer cache, or null if there is nothing left to send
+	 */
+	byte[] takeOutputBuffer()
+	{
+		//spilled output was queued before anything still in the output buffer
+		if(outputBufferCache == null && outputSpill == null && outputBuffer.size() > 0)
+		{
+			outputBufferCache = outputBuffer.toByteArray();
+			outputBufferProgress = 0;
+			outputBuffer.reset();
+		}
+		
+		return outputBufferCache;
+	}
+	
+	/**
+	 * Returns true if there is output waiting in the spill file
+	 * @return true if there is output waiting in the spill file
+	 */
+	boolean hasSpilledOutput()
+	{
+		return outputSpill != null;
+	}
+	
+	/**
+	 * Transfer as much of the spill file as the socket will accept, the file is deleted once it has been fully sent
+	 * @return the amount of bytes transferred
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	long transferSpilledOutput() throws IOException
+	{
+		//transfer straight to the socket channel when there is one, so the kernel can send from the page cache
+		SelectableChannel channel = transport.getSelectableChannel();
+		WritableByteChannel target = channel instanceof WritableByteChannel ? (WritableByteChannel) channel : transport;
+		long transferred = outputSpill.transferTo(target);
+		
+		if(outputSpill.pending() == 0)
+			closeOutputSpill();
+		
+		return transferred;
+	}
+	
+	/**
+	 * Returns the amount of output bytes queued but not yet sent to the socket, this includes any spilled output
+	 * @return the amount of output bytes queued but not yet sent
+	 */
+	public long getPendingOutput()
+	{
+		long pending = outputBuffer.size();
+		
+		if(outputBufferCache != null)
+			pending += outputBufferCache.length - outputBufferProgress;
+		
+		if(outputSpill != null)
+			pending += outputSpill.pending();
+		
+		return pending;
+	}
+	
+	/**
+	 * Advances the output buffer cache by the amount of bytes the socket accepted
+	 * @param written the amount of bytes written to the socket
+	 */
+	void outputBufferSent(int written)
+	{
+		if(outputBufferProgress(written) >= outputBufferCache.length)
+		{
+			outputBufferCache = null;
+			outputBufferProgress = 0;
+		}
+	}
+	
 	/**
 	 * Returns the output buffer write progress
 	 * @return the output buffer write progress
@@ -87,6 +366,7 @@ public class Client
 		outputBufferCache = null;
 		outputBufferProgress = 0;
 		getOutputBuffer().reset();
+		closeOutputSpill();
 	}
 	
 	/**
@@ -177,6 +457,117 @@ public class Client
 		this.outputWrite = outputWrite;
 	}
 	
+	/**
+	 * Returns true if writes are held until flushed
+	 * @return true if writes are held until flushed
+	 */
+	public boolean isCorked()
+	{
+		return corked;
+	}
+	
+	/**
+	 * Set if writes should be held until flushed, uncorking releases any held output
+	 * @param corked set true to hold writes until {@link #flush()} is called
+	 */
+	public void setCorked(boolean corked)
+	{
+		this.corked = corked;
+		
+		if(!corked && outputBuffer.size() > 0)
+			flush();
+	}
+	
+	/**
+	 * Returns the value attached to this client for the key
+	 * @param key any attachment key
+	 * @param <T> the type of the attached value
+	 * @return the attached value, or null if nothing is attached
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getAttachment(AttachmentKey<T> key)
+	{
+		int index = key.getIndex();
+		return index < attachments.length ? (T) attachments[index] : null;
+	}
+	
+	/**
+	 * Attach a value to this client
+	 * @param key any attachment key
+	 * @param value the value to attach, or null to remove the attachment
+	 * @param <T> the type of the attached value
+	 */
+	public <T> void setAttachment(AttachmentKey<T> key, T value)
+	{
+		int index = key.getIndex();
+		
+		if(index >= attachments.length)
+		{
+			if(value == null)
+				return;
+			
+			attachments = Arrays.copyOf(attachments, index + 1);
+		}
+		
+		attachments[index] = value;
+	}
+	
+	/**
+	 * Returns true if the remote end has closed its side of the connection
+	 * @return true if the remote end has closed its side of the connection
+	 */
+	public boolean isEndOfStream()
+	{
+		return endOfStream;
+	}
+	
+	/**
+	 * Flag that the remote end has closed its side of the connection
+	 */
+	void setEndOfStream()
+	{
+		this.endOfStream = true;
+	}
+	
+	/**
+	 * Returns true if the client has no queued output and no pipelined requests in-flight
+	 * @return true if the client has nothing left to send
+	 */
+	boolean isOutputDrained()
+	{
+		return getPendingOutput() == 0 && (pipeline == null || pipeline.getInFlight() == 0);
+	}
+	
+	/**
+	 * Returns true if the request handler has consumed all of the input and all of the output has been sent
+	 * @return true if this client has nothing left to handle or send
+	 */
+	boolean isDrained()
+	{
+		return inputBuffer.size() == 0 && (input == null || input.size() == 0) && isOutputDrained();
+	}
+	
+	/**
+	 * Returns true if the compression stage is enabled
+	 * @return true if the compression stage is enabled
+	 */
+	public boolean isCompressed()
+	{
+		return compression != null;
+	}
+	
+	/**
+	 * Enable or disable the compression stage for this client, both ends must switch at the same point in the stream
+	 * @param compression any compression settings, or null to disable compression
+	 */
+	public void setCompression(Compression compression)
+	{
+		if(this.compression != null)
+			this.compression.release();
+		
+		this.compression = compression == null ? null : new CompressionStage(compression);
+	}
+	
 	/**
 	 * Get the socket state
 	 * @return an integer representing the socket state
@@ -204,6 +595,15 @@ public class Client
 		return inputBuffer;
 	}
 	
+	/**
+	 * Returns the composite input buffer, only used when the server has composite input enabled
+	 * @return the composite input buffer, or null if the input buffer is used instead
+	 */
+	public InputBuffer getInput()
+	{
+		return input;
+	}
+	
 	/**
 	 * Returns the output buffer
 	 * @return the ByteArrayOutputStream representing the output buffer
@@ -234,36 +634,152 @@ public class Client
 	
 	/**
 	 * Returns the bound NIO socket channel
-	 * @return the bound NIO socket channel
+	 * @return the bound NIO socket channel, or null if the client is not using a socket transport
 	 */
 	public SocketChannel getSocket()
 	{
-		return socket;
+		return transport instanceof SocketTransport ? ((SocketTransport) transport).getChannel() : null;
 	}
 	
 	/**
-	 * Returns the socket server this client is bound to
-	 * @return the socket server this client is bound to
+	 * Returns the transport this client is using for communication
+	 * @return the transport this client is using for communication
 	 */
-	public Server getServer()
+	public Transport getTransport()
 	{
-		return server;
+		return transport;
 	}
 	
 	/**
-	 * Resolve the remote address
-	 * @return the remote address, or an empty string if that failed
+	 * Returns the request pipeline used to sequence pipelined responses, it is created on first use
+	 * @return the request pipeline for this client
 	 */
-	private String resolveRemoteAddress()
+	public RequestPipeline getPipeline()
 	{
-		if(socket == null)
-			return ""; //return empty instead of null
-		
-		Socket javaSocket = socket.socket();
-		
-		if(javaSocket == null)
-			return ""; //return empty instead of null
+		if(pipeline == null)
+			pipeline = new RequestPipeline(this, server.getMaxPipelinedRequests());
 		
-		return javaSocket.toString().replace("/","");
+		return pipeline;
+	}
+	
+	/**
+	 * Release any completed pipelined responses that are next in line
+	 * @return the amount of responses released
+	 */
+	int releasePipeline()
+	{
+		return pipeline == null ? 0 : pipeline.release();
+	}
+	
+	/**
+	 * Returns true if the request handler has something to do without any new input,
+	 * either because its last call did work or because a pipelined response is ready to be released
+	 * @return true if the request handler has something to do
+	 */
+	boolean isHandlerReady()
+	{
+		return handlerBusy || (pipeline != null && pipeline.isReleasable());
+	}
+	
+	/**
+	 * Set if the last request handler call did work
+	 * @param handlerBusy true if the last request handler call did work
+	 */
+	void setHandlerBusy(boolean handlerBusy)
+	{
+		this.handlerBusy = handlerBusy;
+	}
+	
+	/**
+	 * Set the IO thread that owns this client
+	 * @param io the IO thread
+	 */
+	void setIO(IO io)
+	{
+		this.io = io;
+	}
+	
+	/**
+	 * Wake up the IO thread that owns this client if it is currently idling
+	 */
+	void wakeup()
+	{
+		if(io != null)
+			io.wakeup();
+	}
+	
+	/**
+	 * Returns true if this client is counted against the server's connection limits
+	 * @return true if this client is counted against the connection limits
+	 */
+	boolean isAdmitted()
+	{
+		return admitted;
+	}
+	
+	/**
+	 * Returns the remote address this client is counted against for the per-address connection limit
+	 * @return the remote address, or null if it is not counted against one
+	 */
+	InetAddress getAdmittedAddress()
+	{
+		return admittedAddress;
+	}
+	
+	/**
+	 * Set if this client is counted against the server's connection limits
+	 * @param admitted true if this client is counted against the connection limits
+	 * @param admittedAddress the remote address it is counted against, or null for none
+	 */
+	void setAdmitted(boolean admitted, InetAddress admittedAddress)
+	{
+		this.admitted = admitted;
+		this.admittedAddress = admittedAddress;
+	}
+	
+	/**
+	 * Returns the traffic recorder this client's traffic is recorded to
+	 * @return the traffic recorder, or null if this client is not being recorded
+	 */
+	TrafficRecorder getTrafficRecorder()
+	{
+		return trafficRecorder;
+	}
+	
+	/**
+	 * Set the traffic recorder this client's traffic is recorded to
+	 * @param trafficRecorder any traffic recorder, or null to stop recording
+	 */
+	void setTrafficRecorder(TrafficRecorder trafficRecorder)
+	{
+		this.trafficRecorder = trafficRecorder;
+	}
+	
+	/**
+	 * Returns the request handler called for this client
+	 * @return the request handler bound to this client, or the server's request handler if none has been bound
+	 */
+	public ClientRunnable getRequestHandler()
+	{
+		return requestHandler != null ? requestHandler : server.getRequestHandler();
+	}
+	
+	/**
+	 * Bind a request handler to this client in place of the server's, such as after sniffing its protocol or an upgrade.
+	 * It is called from the next pass onwards
+	 * @param requestHandler any request handler, or null to go back to the server's request handler
+	 */
+	public void setRequestHandler(ClientRunnable requestHandler)
+	{
+		this.requestHandler = requestHandler;
+	}
+	
+	/**
+	 * Returns the socket server this client is bound to
+	 * @return the socket server this client is bound to
+	 */
+	public Server getServer()
+	{
+		return server;
 	}
 }
\ No newline at end of file
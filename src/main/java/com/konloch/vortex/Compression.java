@@ -0,0 +1,147 @@
+package com.konloch.vortex;
+
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Settings for the per-connection compression stage, along with the pool of reusable deflaters and inflaters.
+ * <p>
+ * Every write becomes a frame made of a one byte type (0 raw, 1 deflated), a four byte big-endian length, then the payload.
+ * Deflated frames share a single stream per direction and connection, so repetitive payloads keep compressing
+ * better over the lifetime of the connection. The remote end must frame its own writes the same way.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class Compression
+{
+	private final int level;
+	private final byte[] dictionary;
+	private final int threshold;
+	private final ArrayDeque<Deflater> deflaters = new ArrayDeque<>();
+	private final ArrayDeque<Inflater> inflaters = new ArrayDeque<>();
+	private int maxPooled = 256;
+
+	/**
+	 * Construct a new compression setting using the default level, no dictionary and a 64 byte threshold
+	 */
+	public Compression()
+	{
+		this(Deflater.DEFAULT_COMPRESSION, null, 64);
+	}
+
+	/**
+	 * Construct a new compression setting
+	 * @param level any deflate level between 0-9, or -1 for the default level
+	 * @param dictionary the preset dictionary both ends share, or null for none
+	 * @param threshold writes smaller than this amount of bytes are sent uncompressed
+	 */
+	public Compression(int level, byte[] dictionary, int threshold)
+	{
+		this.level = level;
+		this.dictionary = dictionary;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the deflate level
+	 * @return the deflate level
+	 */
+	public int getLevel()
+	{
+		return level;
+	}
+
+	/**
+	 * Returns the preset dictionary
+	 * @return the preset dictionary, or null if there is none
+	 */
+	public byte[] getDictionary()
+	{
+		return dictionary;
+	}
+
+	/**
+	 * Returns the amount of bytes a write needs before it will be compressed
+	 * @return the amount of bytes a write needs before it will be compressed
+	 */
+	public int getThreshold()
+	{
+		return threshold;
+	}
+
+	/**
+	 * Returns the maximum amount of idle deflaters and inflaters kept in the pool
+	 * @return the maximum amount of idle deflaters and inflaters kept in the pool
+	 */
+	public int getMaxPooled()
+	{
+		return maxPooled;
+	}
+
+	/**
+	 * Set the maximum amount of idle deflaters and inflaters kept in the pool, each one holds native memory
+	 * @param maxPooled any integer as the maximum pool size
+	 * @return this instance for method chaining
+	 */
+	public Compression setMaxPooled(int maxPooled)
+	{
+		this.maxPooled = maxPooled;
+		return this;
+	}
+
+	/**
+	 * Take a deflater from the pool, it is reset and ready for a new stream
+	 * @return a deflater
+	 */
+	synchronized Deflater borrowDeflater()
+	{
+		Deflater deflater = deflaters.poll();
+
+		if(deflater == null)
+			return new Deflater(level);
+
+		deflater.reset();
+		return deflater;
+	}
+
+	/**
+	 * Return a deflater to the pool
+	 * @param deflater the deflater
+	 */
+	synchronized void returnDeflater(Deflater deflater)
+	{
+		if(deflaters.size() < maxPooled)
+			deflaters.add(deflater);
+		else
+			deflater.end();
+	}
+
+	/**
+	 * Take an inflater from the pool, it is reset and ready for a new stream
+	 * @return an inflater
+	 */
+	synchronized Inflater borrowInflater()
+	{
+		Inflater inflater = inflaters.poll();
+
+		if(inflater == null)
+			return new Inflater();
+
+		inflater.reset();
+		return inflater;
+	}
+
+	/**
+	 * Return an inflater to the pool
+	 * @param inflater the inflater
+	 */
+	synchronized void returnInflater(Inflater inflater)
+	{
+		if(inflaters.size() < maxPooled)
+			inflaters.add(inflater);
+		else
+			inflater.end();
+	}
+}
@@ -0,0 +1,180 @@
+package com.konloch.vortex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * The streaming compression stage for a single client, this is only ever used by the IO thread that owns the client.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+class CompressionStage
+{
+	private static final int HEADER_SIZE = 5;
+	private static final byte RAW = 0;
+	private static final byte DEFLATED = 1;
+
+	private final Compression compression;
+	private final Deflater deflater;
+	private final Inflater inflater;
+	private final byte[] header = new byte[HEADER_SIZE];
+	private final byte[] outputHeader = new byte[HEADER_SIZE];
+	private byte[] deflateBuffer = new byte[512];
+	private final byte[] inflateBuffer = new byte[4096];
+	private int headerSize;
+	private byte frameType;
+	private int frameRemaining;
+
+	/**
+	 * Construct a new compression stage using pooled deflaters and inflaters
+	 * @param compression the compression settings
+	 */
+	CompressionStage(Compression compression)
+	{
+		this.compression = compression;
+		this.deflater = compression.borrowDeflater();
+		this.inflater = compression.borrowInflater();
+
+		deflater.setLevel(compression.getLevel());
+
+		if(compression.getDictionary() != null)
+			deflater.setDictionary(compression.getDictionary());
+	}
+
+	/**
+	 * Frame the bytes, compressing them if they reach the threshold
+	 * @param bytes any byte array
+	 * @param out the stream the frame is written to
+	 */
+	void encode(byte[] bytes, ByteArrayOutputStream out)
+	{
+		if(bytes.length < compression.getThreshold())
+		{
+			writeHeader(out, RAW, bytes.length);
+			out.write(bytes, 0, bytes.length);
+			return;
+		}
+
+		//sync flush keeps the stream open so the next frame can refer back to this one
+		deflater.setInput(bytes);
+		int size = 0;
+		do
+		{
+			if(size == deflateBuffer.length)
+				deflateBuffer = Arrays.copyOf(deflateBuffer, deflateBuffer.length << 1);
+
+			size += deflater.deflate(deflateBuffer, size, deflateBuffer.length - size, Deflater.SYNC_FLUSH);
+		}
+		while(size == deflateBuffer.length);
+
+		writeHeader(out, DEFLATED, size);
+		out.write(deflateBuffer, 0, size);
+	}
+
+	/**
+	 * Decode any amount of framed bytes, complete payloads are written to the input as they become available
+	 * @param bytes the bytes read from the socket
+	 * @param offset the offset to start from
+	 * @param length the amount of bytes
+	 * @param input the stream decoded bytes are written to
+	 * @throws IOException thrown if the remote end sent a malformed frame, as a ZipException
+	 */
+	void decode(byte[] bytes, int offset, int length, OutputStream input) throws IOException
+	{
+		int end = offset + length;
+
+		while(offset < end)
+		{
+			if(frameRemaining == 0)
+			{
+				header[headerSize++] = bytes[offset++];
+
+				if(headerSize == HEADER_SIZE)
+				{
+					headerSize = 0;
+					frameType = header[0];
+					frameRemaining = ((header[1] & 0xFF) << 24) | ((header[2] & 0xFF) << 16)
+							| ((header[3] & 0xFF) << 8) | (header[4] & 0xFF);
+
+					if(frameRemaining < 0 || (frameType != RAW && frameType != DEFLATED))
+						throw new ZipException("Malformed frame header");
+				}
+
+				continue;
+			}
+
+			int amount = Math.min(frameRemaining, end - offset);
+
+			if(frameType == RAW)
+				input.write(bytes, offset, amount);
+			else
+				inflate(bytes, offset, amount, input);
+
+			offset += amount;
+			frameRemaining -= amount;
+		}
+	}
+
+	/**
+	 * Return the deflater and inflater to the pool, the stage cannot be used after this
+	 */
+	void release()
+	{
+		compression.returnDeflater(deflater);
+		compression.returnInflater(inflater);
+	}
+
+	/**
+	 * Inflate part of a deflated frame, the inflater keeps the stream state between calls
+	 */
+	private void inflate(byte[] bytes, int offset, int length, OutputStream input) throws IOException
+	{
+		inflater.setInput(bytes, offset, length);
+
+		try
+		{
+			while(true)
+			{
+				int inflated = inflater.inflate(inflateBuffer);
+
+				if(inflated > 0)
+				{
+					input.write(inflateBuffer, 0, inflated);
+					continue;
+				}
+
+				if(!inflater.needsDictionary())
+					break;
+
+				if(compression.getDictionary() == null)
+					throw new ZipException("Stream requires a preset dictionary");
+
+				inflater.setDictionary(compression.getDictionary());
+			}
+		}
+		catch (DataFormatException e)
+		{
+			throw new ZipException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Write a frame header
+	 */
+	private void writeHeader(ByteArrayOutputStream out, byte type, int length)
+	{
+		outputHeader[0] = type;
+		outputHeader[1] = (byte) (length >>> 24);
+		outputHeader[2] = (byte) (length >>> 16);
+		outputHeader[3] = (byte) (length >>> 8);
+		outputHeader[4] = (byte) length;
+		out.write(outputHeader, 0, HEADER_SIZE);
+	}
+}
@@ -0,0 +1,98 @@
+package com.konloch.vortex;
+
+/**
+ * JDK Flight Recorder events, this is the Java 8 version where every event is a no-op.
+ * The multi-release jar replaces this class and its events with real JFR events on Java 11 or higher.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class FlightRecorderEvents
+{
+	private FlightRecorderEvents()
+	{
+	}
+	
+	/**
+	 * The shared event methods, these mirror jdk.jfr.Event
+	 */
+	abstract static class VortexEvent
+	{
+		void begin()
+		{
+		}
+		
+		void end()
+		{
+		}
+		
+		boolean shouldCommit()
+		{
+			return false;
+		}
+		
+		void commit()
+		{
+		}
+	}
+	
+	/**
+	 * A connection was accepted or rejected by the acceptor
+	 */
+	static final class Accept extends VortexEvent
+	{
+		long uid;
+		String remoteAddress;
+		int ioThread;
+		boolean accepted;
+	}
+	
+	/**
+	 * A socket read that returned data
+	 */
+	static final class SocketRead extends VortexEvent
+	{
+		long uid;
+		int ioThread;
+		long bytes;
+	}
+	
+	/**
+	 * A socket write or spill transfer
+	 */
+	static final class SocketWrite extends VortexEvent
+	{
+		long uid;
+		int ioThread;
+		long bytes;
+	}
+	
+	/**
+	 * A single request handler invocation
+	 */
+	static final class Handler extends VortexEvent
+	{
+		long uid;
+		int ioThread;
+	}
+	
+	/**
+	 * A single pass of an IO thread over all of its clients
+	 */
+	static final class LoopIteration extends VortexEvent
+	{
+		int ioThread;
+		int clients;
+		int workCount;
+	}
+	
+	/**
+	 * A client was disconnected for network inactivity
+	 */
+	static final class Timeout extends VortexEvent
+	{
+		long uid;
+		String remoteAddress;
+		int ioThread;
+	}
+}
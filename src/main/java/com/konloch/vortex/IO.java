@@ -1,10 +1,16 @@
 package com.konloch.vortex;
 
+import com.konloch.vortex.interfaces.IdleStrategy;
+import com.konloch.vortex.interfaces.Transport;
+
 import java.io.IOException;
-import java.net.Socket;
 import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Konloch
@@ -12,16 +18,38 @@ import java.util.*;
  */
 class IO implements Runnable
 {
+	//the most a single write call is handed, as a multiple of the IO amount. A heap buffer is copied into a temporary
+	//direct buffer on every write and the JDK caches that buffer per thread, so this bounds both the copy and the cache
+	private static final int MAX_WRITE_MULTIPLE = 64;
+	
 	private final Server server;
+	private final int index;
 	private final List<Client> clients = new ArrayList<>();
+	private final Queue<Client> pendingClients = new ConcurrentLinkedQueue<>();
+	private final List<Client> readyClients = new ArrayList<>();
+	private final Deque<Client> handlerQueue = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger handlersOutstanding = new AtomicInteger();
+	private final AtomicInteger handlerWork = new AtomicInteger();
+	private volatile IdleStrategy idleStrategy;
+	private volatile Thread thread;
+	private volatile long passStart;
+	private volatile long handlerStart;
+	private volatile long handlerClientUID;
+	private volatile boolean stalled;
+	private volatile long loopLatency;
+	private volatile long pendingOutput;
+	private volatile boolean shedRequested;
+	private volatile boolean awaitingMeasurement;
 	
 	/**
 	 * Construct a new SocketServerIO
 	 * @param server the SocketServer this IO Handler is bound to
+	 * @param index the index of this IO Handler in the thread pool
 	 */
-	public IO(Server server)
+	public IO(Server server, int index)
 	{
 		this.server = server;
+		this.index = index;
 	}
 	
 	/**
@@ -31,49 +59,119 @@ class IO implements Runnable
 	public void run()
 	{
 		ByteBuffer buffer = ByteBuffer.allocate(server.getIOAmount());
+		IdleStrategy idleStrategy = this.idleStrategy = server.getIOIdleStrategy().get();
+		thread = Thread.currentThread();
 		while (server.isRunning())
 		{
 			try
 			{
-				if (clients.isEmpty())
+				//only pay for the heartbeat while the watchdog is enabled
+				boolean watched = server.getStallThreshold() > 0;
+				
+				if (watched)
+					passStart = System.nanoTime();
+				
+				//take ownership of any newly accepted clients
+				boolean pickedUp = false;
+				Client pending;
+				while ((pending = pendingClients.poll()) != null)
 				{
-					//sleep only while the server is not processing data
+					pickedUp = true;
+					pending.setIO(this);
+					clients.add(pending);
+					
 					try
 					{
-						Thread.sleep(1);
+						//in-memory transports have nothing to register
+						SelectableChannel channel = pending.getTransport().getSelectableChannel();
+						
+						if (channel != null)
+							idleStrategy.register(channel, SelectionKey.OP_READ);
 					}
-					catch (InterruptedException e)
+					catch (Exception e)
 					{
 						e.printStackTrace();
 					}
+				}
+				
+				if (clients.isEmpty())
+				{
+					//an IO thread without any clients of its own helps out with handlers queued on the busy ones
+					if (server.isHandlerStealing() && stealHandler(watched))
+						continue;
 					
+					//rest only while the server is not processing data
+					passStart = 0;
+					loopLatency = 0;
+					pendingOutput = 0;
+					idleStrategy.idle(0);
 					continue;
 				}
 				
+				FlightRecorderEvents.LoopIteration loopEvent = new FlightRecorderEvents.LoopIteration();
+				loopEvent.begin();
+				
+				int workCount = 0;
 				long now = System.currentTimeMillis();
 				
+				//only pay for the load measurements while overload protection is enabled
+				boolean measureLatency = server.getMaxLoopLatency() > 0;
+				boolean measureOutput = server.getMaxPendingOutput() > 0;
+				boolean handlerStealing = server.isHandlerStealing();
+				boolean draining = server.isDraining();
+				long loopStart = measureLatency ? System.nanoTime() : 0;
+				long passPendingOutput = 0;
+				
+				//close the longest idle client if the acceptor has asked for load to be shed
+				if (shedRequested)
+				{
+					shedRequested = false;
+					
+					//a repeated request can arrive after a shed client has already made room, which would close a second one
+					if (server.isShedWanted())
+						shedIdleClient(now);
+				}
+				
 				//remove any clients not connected
 				clients.removeIf(client ->
 				{
 					if(client == null)
 						return true;
 					
-					final SocketChannel clientSC = client.getSocket();
+					final Transport transport = client.getTransport();
 					
-					if(clientSC == null)
+					if(transport == null)
 						return true;
 					
-					boolean remove = !clientSC.isConnected();
+					boolean remove = !transport.isConnected();
 					
 					//timeout if there is no network activity
-					if (Math.min(now - client.getLastNetworkActivityWrite(),
-							now - client.getLastNetworkActivityRead()) > server.getTimeout())
+					boolean timedOut = Math.min(now - client.getLastNetworkActivityWrite(),
+							now - client.getLastNetworkActivityRead()) > server.getTimeout();
+					
+					//close once the remote end has hung up and everything queued for it has been sent
+					boolean hungUp = server.isCloseOnEndOfStream() && client.isEndOfStream() && client.isOutputDrained();
+					
+					if (timedOut || hungUp)
 					{
 						remove = true;
 						
+						if (timedOut)
+						{
+							FlightRecorderEvents.Timeout timeoutEvent = new FlightRecorderEvents.Timeout();
+							
+							if (timeoutEvent.shouldCommit())
+							{
+								timeoutEvent.uid = client.getUID();
+								timeoutEvent.remoteAddress = client.getRemoteAddress();
+								timeoutEvent.ioThread = index;
+								timeoutEvent.commit();
+							}
+						}
+						
 						try
 						{
-							clientSC.close();
+							transport.close();
 						}
 						catch (IOException e)
 						{
@@ -81,36 +179,80 @@ class IO implements Runnable
 						}
 					}
 					
-					if (remove && server.getOnDisconnect() != null)
-						server.getOnDisconnect().run(client);
+					if (remove)
+						server.clientDisconnected(client);
 					
 					return remove;
 				});
 				
+				//a pass cut short by an exception can leave clients behind, they must never be queued twice
+				readyClients.clear();
+				
 				//iterate thru all clients
 				for (Client client : clients)
 				{
 					if(client == null)
 						continue;
 					
-					final SocketChannel clientSC = client.getSocket();
+					final Transport transport = client.getTransport();
 					
-					if(clientSC == null)
+					if(transport == null)
 						continue;
 					
+					boolean quiet = false;
+					
 					try
 					{
 						//if the client has been disconnected, do not try to process anything
-						if (!clientSC.isConnected())
+						if (!transport.isConnected())
 							continue;
 						
 						//process reading (always in the reading state unless disconnected)
-						clientSC.read(buffer);
+						FlightRecorderEvents.SocketRead readEvent = new FlightRecorderEvents.SocketRead();
+						readEvent.begin();
 						
-						if (buffer.position() > 0)
+						//composite input is scattered straight into its chunks, unless it has to be decoded first
+						InputBuffer input = client.getInput();
+						boolean scatter = input != null && !client.isCompressed();
+						int read = scatter ? (int) input.readFrom(transport) : transport.read(buffer);
+						//a client that has hung up has nothing new to read either
+						quiet = read <= 0;
+						
+						readEvent.end();
+						
+						if (read < 0)
+						{
+							//stop waking up for a channel that will report readable on every select from now on
+							if (!client.isEndOfStream() && transport.getSelectableChannel() != null)
+								idleStrategy.deregister(transport.getSelectableChannel());
+							
+							client.setEndOfStream();
+						}
+						else if (read > 0 && readEvent.shouldCommit())
+						{
+							readEvent.uid = client.getUID();
+							readEvent.ioThread = index;
+							readEvent.bytes = read;
+							readEvent.commit();
+						}
+						
+						if (read > 0)
 						{
+							workCount += read;
 							client.resetLastNetworkActivityRead();
-							client.getInputBuffer().write(buffer.array(), 0, buffer.position());
+							
+							if (scatter)
+							{
+								if (client.getTrafficRecorder() != null)
+									client.getTrafficRecorder().read(client.getUID(), input.copyTail(read), 0, read);
+							}
+							else
+							{
+								if (client.getTrafficRecorder() != null)
+									client.getTrafficRecorder().read(client.getUID(), buffer.array(), 0, read);
+								
+								client.received(buffer.array(), 0, read);
+							}
 						}
 						else
 							client.setInputRead(false);
@@ -120,45 +262,52 @@ class IO implements Runnable
 						//processing writing (only write when asked to)
 						if (client.isOutputWrite())
 						{
-							boolean fromCache = client.getOutputBufferCache() != null;
-							if (client.getOutputBuffer().size() > 0 || fromCache)
+							FlightRecorderEvents.SocketWrite writeEvent = new FlightRecorderEvents.SocketWrite();
+							writeEvent.begin();
+							long written = 0;
+							
+							//everything queued so far goes out in a single write call
+							byte[] output = client.takeOutputBuffer();
+							if (output != null)
 							{
 								int offset = client.getOutputBufferProgress();
 								
-								int readMax = server.getIOAmount();
-								
-								if(!fromCache)
-									client.setOutputBufferCache(client.getOutputBuffer().toByteArray());
-								
-								//dump the buffer
-								byte[] bufferDump = client.getOutputBufferCache();
-								
-								if(offset+readMax > bufferDump.length)
-									readMax = bufferDump.length - offset;
-								
-								//clear the buffer
-								if(client.outputBufferProgress(readMax) >= bufferDump.length)
-									client.resetOutputBuffer();
-								
-								//write what we can to the socket
-								buffer.put(bufferDump, offset, readMax);
+								//reset the network activity
+								client.resetLastNetworkActivityWrite();
 								
-								//flip the stored data
-								((java.nio.Buffer) buffer).flip();
+								//write what we can to the socket, the rest is sent on the next pass
+								int length = (int) Math.min(output.length - offset, (long) server.getIOAmount() * MAX_WRITE_MULTIPLE);
+								written = transport.write(ByteBuffer.wrap(output, offset, length));
+								client.outputBufferSent((int) written);
 								
-								//reset the network activity
+								if (written > 0 && client.getTrafficRecorder() != null)
+									client.getTrafficRecorder().written(client.getUID(), output, offset, (int) written);
+							}
+							else if (client.hasSpilledOutput())
+							{
 								client.resetLastNetworkActivityWrite();
 								
-								//sent the buffer
-								clientSC.write(buffer);
+								//stream the spilled output straight from the file as the socket drains
+								written = client.transferSpilledOutput();
 								
-								//clear the buffer
-								((java.nio.Buffer) buffer).clear();
+								if (written > 0 && client.getTrafficRecorder() != null)
+									client.getTrafficRecorder().writtenElided(client.getUID(), (int) written);
 							}
 							else
 							{
 								client.setOutputWrite(false);
 							}
+							
+							workCount += (int) written;
+							writeEvent.end();
+							
+							if (written > 0 && writeEvent.shouldCommit())
+							{
+								writeEvent.uid = client.getUID();
+								writeEvent.ioThread = index;
+								writeEvent.bytes = written;
+								writeEvent.commit();
+							}
 						}
 					}
 					catch (IOException e)
@@ -168,7 +317,7 @@ class IO implements Runnable
 						
 						try
 						{
-							clientSC.close();
+							transport.close();
 						}
 						catch (Exception ex)
 						{
@@ -180,15 +329,65 @@ class IO implements Runnable
 						e.printStackTrace();
 					}
 					
-					try
-					{
-						server.getRequestHandler().run(client);
-					}
-					catch (Exception e)
+					//while draining, close clients with nothing new to read, nothing left to handle and nothing left to send
+					if (draining && quiet && client.isDrained())
 					{
-						e.printStackTrace();
+						try
+						{
+							transport.close();
+						}
+						catch (IOException e)
+						{
+							//ignore
+						}
+						
+						//the client is removed and disconnected by the connection check on the next pass
+						continue;
 					}
+					
+					//with handler stealing the handlers with something to do run once every client has been read and written,
+					//the rest run here the same as without stealing so they are never handed to another thread
+					if (handlerStealing && (!quiet || client.isHandlerReady()))
+						readyClients.add(client);
+					else
+						workCount += runHandler(client, now, watched);
+				}
+				
+				if (handlerStealing)
+					workCount += runHandlersStealing(now, watched);
+				
+				if (measureOutput)
+					for (Client client : clients)
+						passPendingOutput += client.getPendingOutput();
+				
+				if (measureLatency)
+				{
+					//hold the slowest recent pass and let it decay, so quick passes over a few ready clients
+					//do not hide how long a pass takes once every client has a request waiting
+					long elapsed = System.nanoTime() - loopStart;
+					loopLatency = Math.max(elapsed, loopLatency - (loopLatency >> 4));
+					
+					//the new clients have now been measured, the acceptor can hand this thread another one
+					if (pickedUp && pendingClients.isEmpty())
+						awaitingMeasurement = false;
+				}
+				
+				pendingOutput = passPendingOutput;
+				
+				loopEvent.end();
+				
+				if (loopEvent.shouldCommit())
+				{
+					loopEvent.ioThread = index;
+					loopEvent.clients = clients.size();
+					loopEvent.workCount = workCount;
+					loopEvent.commit();
 				}
+				
+				passStart = 0;
+				
+				if (idleStrategy.isIdleWhileServing())
+					idleStrategy.idle(workCount);
 			}
 			catch (ConcurrentModificationException e)
 			{
@@ -199,6 +398,381 @@ class IO implements Runnable
 				e.printStackTrace();
 			}
 		}
+		
+		//a graceful shutdown that ran out of time closes whatever is left once the last pass has finished
+		if (server.isDraining())
+			closeClients();
+		else
+			closeOutputSpills();
+		
+		idleStrategy.close();
+	}
+	
+	/**
+	 * Close and disconnect every client owned by this IO thread, including any not picked up yet
+	 */
+	private void closeClients()
+	{
+		Client pending;
+		while ((pending = pendingClients.poll()) != null)
+			clients.add(pending);
+		
+		for (Client client : clients)
+		{
+			Transport transport = client.getTransport();
+			
+			if (transport == null)
+				continue;
+			
+			try
+			{
+				transport.close();
+			}
+			catch (IOException e)
+			{
+				//ignore
+			}
+			
+			server.clientDisconnected(client);
+		}
+		
+		clients.clear();
+	}
+	
+	/**
+	 * Close the spill file of every client owned by this IO thread, the clients themselves are left connected
+	 */
+	private void closeOutputSpills()
+	{
+		for (Client client : clients)
+			client.closeOutputSpill();
+		
+		for (Client client : pendingClients)
+			client.closeOutputSpill();
+	}
+	
+	/**
+	 * Run the request handler for a single client, then release its pipelined responses and any corked output that is due
+	 * @param client the socket client
+	 * @param now the current time in milliseconds
+	 * @param watched true if the watchdog heartbeat should be updated
+	 * @return the amount of work done
+	 */
+	private int runHandler(Client client, long now, boolean watched)
+	{
+		try
+		{
+			int state = client.getState();
+			
+			FlightRecorderEvents.Handler handlerEvent = new FlightRecorderEvents.Handler();
+			handlerEvent.begin();
+			
+			if (watched)
+			{
+				handlerClientUID = client.getUID();
+				handlerStart = System.nanoTime();
+			}
+			
+			try
+			{
+				client.getRequestHandler().run(client);
+			}
+			finally
+			{
+				handlerStart = 0;
+			}
+			
+			handlerEvent.end();
+			
+			if (handlerEvent.shouldCommit())
+			{
+				handlerEvent.uid = client.getUID();
+				handlerEvent.ioThread = index;
+				handlerEvent.commit();
+			}
+			
+			//release any pipelined responses that are ready, strictly in request order
+			int workCount = client.releasePipeline();
+			
+			//release corked output once it is due
+			client.flushIfDue(now);
+			
+			//a handler that is still advancing its state machine or has output queued is not idle,
+			//nor is corked output waiting on the max write delay, a blocking idle strategy would otherwise overshoot it
+			if (client.getState() != state || client.isOutputWrite() || client.isFlushPending())
+				workCount++;
+			
+			client.setHandlerBusy(workCount > 0);
+			return workCount;
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+			return 0;
+		}
+	}
+	
+	/**
+	 * Queue the request handler of every ready client so idle IO threads can steal them, then run what is left.
+	 * The next pass only starts once every stolen handler has finished, so a client's handler never runs
+	 * on two threads at once and never runs while its client is being read or written
+	 * @param now the current time in milliseconds
+	 * @param watched true if the watchdog heartbeat should be updated
+	 * @return the amount of work done
+	 */
+	private int runHandlersStealing(long now, boolean watched)
+	{
+		int queued = 0;
+		
+		for (Client client : readyClients)
+		{
+			//disconnected clients are skipped the same way they are when handlers run inline
+			if (!client.getTransport().isConnected())
+				continue;
+			
+			handlersOutstanding.incrementAndGet();
+			handlerQueue.addLast(client);
+			queued++;
+		}
+		
+		//this thread runs one handler at a time, only wake the others up if there are more queued than that
+		if (queued > 1)
+			for (IO io : server.getThreadPool())
+				if (io != null && io != this)
+					io.wakeup();
+		
+		Client client;
+		while ((client = handlerQueue.pollFirst()) != null)
+			runQueuedHandler(this, client, now, watched);
+		
+		//help out elsewhere while waiting for the handlers stolen from this thread
+		while (handlersOutstanding.get() > 0)
+			if (!stealHandler(watched))
+				Thread.yield();
+		
+		//take a single handler from a busier thread before the next pass
+		int workCount = stealHandler(watched) ? 1 : 0;
+		
+		return workCount + handlerWork.getAndSet(0);
+	}
+	
+	/**
+	 * Steal a single queued request handler from the tail of another IO thread's handler queue and run it
+	 * @param watched true if the watchdog heartbeat should be updated
+	 * @return true if a handler was stolen
+	 */
+	private boolean stealHandler(boolean watched)
+	{
+		IO[] threadPool = server.getThreadPool();
+		
+		for (int i = 1; i < threadPool.length; i++)
+		{
+			IO owner = threadPool[(index + i) % threadPool.length];
+			
+			if (owner == null)
+				continue;
+			
+			Client client = owner.handlerQueue.pollLast();
+			
+			if (client != null)
+			{
+				runQueuedHandler(owner, client, System.currentTimeMillis(), watched);
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Run a queued request handler on this thread and report its completion to the IO thread that queued it
+	 * @param owner the IO thread that owns the client
+	 * @param client the socket client
+	 * @param now the current time in milliseconds
+	 * @param watched true if the watchdog heartbeat should be updated
+	 */
+	private void runQueuedHandler(IO owner, Client client, long now, boolean watched)
+	{
+		try
+		{
+			owner.handlerWork.addAndGet(runHandler(client, now, watched));
+		}
+		finally
+		{
+			owner.handlersOutstanding.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Close the client that has gone the longest without any network activity,
+	 * if it has been idle for at least the shed idle connections threshold
+	 * @param now the current time in milliseconds
+	 */
+	private void shedIdleClient(long now)
+	{
+		Client oldest = null;
+		long oldestActivity = now - server.getShedIdleConnections();
+		
+		for (Client client : clients)
+		{
+			if (client == null || client.getTransport() == null)
+				continue;
+			
+			long lastActivity = Math.max(client.getLastNetworkActivityRead(), client.getLastNetworkActivityWrite());
+			
+			if (lastActivity <= oldestActivity)
+			{
+				oldest = client;
+				oldestActivity = lastActivity;
+			}
+		}
+		
+		if (oldest == null)
+			return;
+		
+		try
+		{
+			//the client is removed and disconnected by the connection check that follows
+			oldest.getTransport().close();
+		}
+		catch (IOException e)
+		{
+			//ignore
+		}
+	}
+	
+	/**
+	 * Queue a newly accepted client, it will be picked up at the start of the next pass.
+	 * This is safe to call from any thread
+	 * @param client the socket client
+	 */
+	public void addClient(Client client)
+	{
+		if (server.getMaxLoopLatency() > 0)
+			awaitingMeasurement = true;
+		
+		pendingClients.add(client);
+		wakeup();
+	}
+	
+	/**
+	 * Wake up this IO thread if it is currently idling
+	 */
+	public void wakeup()
+	{
+		IdleStrategy idleStrategy = this.idleStrategy;
+		
+		if(idleStrategy != null)
+			idleStrategy.wakeup();
+	}
+	
+	/**
+	 * Returns the thread running this IO loop
+	 * @return the thread running this IO loop, or null if it has not started yet
+	 */
+	Thread getThread()
+	{
+		return thread;
+	}
+	
+	/**
+	 * Returns when the current pass started
+	 * @return the System.nanoTime() the current pass started at, or 0 if the thread is idle
+	 */
+	long getPassStart()
+	{
+		return passStart;
+	}
+	
+	/**
+	 * Returns when the current request handler call started
+	 * @return the System.nanoTime() the current handler call started at, or 0 if no handler is running
+	 */
+	long getHandlerStart()
+	{
+		return handlerStart;
+	}
+	
+	/**
+	 * Returns the unique user id of the client whose handler is running
+	 * @return the unique user id of the client whose handler is running
+	 */
+	long getHandlerClientUID()
+	{
+		return handlerClientUID;
+	}
+	
+	/**
+	 * Returns true if the watchdog has reported this thread as stalled and it has not recovered yet
+	 * @return true if this thread is stalled
+	 */
+	public boolean isStalled()
+	{
+		return stalled;
+	}
+	
+	/**
+	 * Set the stalled state, this is called by the watchdog
+	 * @param stalled true if this thread is stalled
+	 */
+	void setStalled(boolean stalled)
+	{
+		this.stalled = stalled;
+	}
+	
+	/**
+	 * Returns the decaying peak duration of a pass over every client
+	 * @return the decaying peak pass duration in nanoseconds, or 0 if it is not being measured
+	 */
+	long getLoopLatency()
+	{
+		return loopLatency;
+	}
+	
+	/**
+	 * Returns the amount of output bytes queued on this thread's clients as of the last pass
+	 * @return the amount of output bytes queued, or 0 if it is not being measured
+	 */
+	long getPendingOutput()
+	{
+		return pendingOutput;
+	}
+	
+	/**
+	 * Returns true if this thread has passed the loop latency or pending output limit
+	 * @return true if this thread is overloaded
+	 */
+	boolean isOverloaded()
+	{
+		return (server.getMaxLoopLatency() > 0 && loopLatency > server.getMaxLoopLatency() * 1_000_000L)
+				|| (server.getMaxPendingOutput() > 0 && pendingOutput > server.getMaxPendingOutput());
+	}
+	
+	/**
+	 * Returns true if this thread can be given a new client, while the loop latency limit is enabled a thread takes
+	 * a single new client per pass so the cost of each one is measured before the next is accepted
+	 * @return true if this thread can be given a new client
+	 */
+	boolean canAccept()
+	{
+		return !isOverloaded() && !awaitingMeasurement;
+	}
+	
+	/**
+	 * Ask this thread to close its longest idle client at the start of the next pass
+	 */
+	void requestShed()
+	{
+		shedRequested = true;
+	}
+	
+	/**
+	 * Returns the index of this IO thread in the thread pool
+	 * @return the index of this IO thread in the thread pool
+	 */
+	public int getIndex()
+	{
+		return index;
 	}
 	
 	/**
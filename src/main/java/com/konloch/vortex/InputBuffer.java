@@ -0,0 +1,448 @@
+package com.konloch.vortex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayDeque;
+
+/**
+ * The composite input buffer of a client, made of pooled chunks that reads are scattered straight into.
+ * <p>
+ * Bytes are never compacted or copied once they have been read. Handlers inspect them through read-only views and the
+ * search helpers, then {@link #consume(int)} what they have handled. Anything not consumed, such as a partial frame,
+ * stays in place for the next call, and fully consumed chunks go back to the pool.
+ * <p>
+ * All indexes are relative to the first unconsumed byte.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class InputBuffer
+{
+	private static final int MAX_SCATTER_CHUNKS = 16;
+
+	private final ChunkPool pool;
+	private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+	private final ByteBuffer[] scatter = new ByteBuffer[MAX_SCATTER_CHUNKS];
+	private int readOffset;
+	private int size;
+	private int spares = 1;
+	private OutputStream stream;
+
+	/**
+	 * Construct a new input buffer
+	 * @param pool the pool chunks are taken from and returned to
+	 */
+	InputBuffer(ChunkPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/**
+	 * Read from a channel straight into the chunks. A single spare chunk is offered while reads are small,
+	 * and the amount doubles every time a read fills everything it was offered
+	 * @param channel the channel to read from
+	 * @return the amount of bytes read, or -1 if the channel has reached the end of the stream
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	long readFrom(ScatteringByteChannel channel) throws IOException
+	{
+		ByteBuffer tail = chunks.peekLast();
+		int count = 0;
+		int offered = 0;
+
+		if(tail != null && tail.hasRemaining())
+		{
+			scatter[count++] = tail;
+			offered += tail.remaining();
+		}
+
+		int first = count;
+		int last = Math.min(MAX_SCATTER_CHUNKS, count + spares);
+
+		while(count < last)
+		{
+			ByteBuffer chunk = pool.take();
+			scatter[count++] = chunk;
+			offered += chunk.remaining();
+		}
+
+		long read;
+
+		try
+		{
+			read = channel.read(scatter, 0, count);
+		}
+		finally
+		{
+			for(int i = first; i < count; i++)
+			{
+				ByteBuffer chunk = scatter[i];
+
+				if(chunk.position() > 0)
+					chunks.addLast(chunk);
+				else
+					pool.give(chunk);
+			}
+
+			for(int i = 0; i < count; i++)
+				scatter[i] = null;
+		}
+
+		spares = read == offered ? Math.min(MAX_SCATTER_CHUNKS, spares * 2) : 1;
+
+		if(read > 0)
+			size += read;
+
+		return read;
+	}
+
+	/**
+	 * Append a copy of bytes to the end of the buffer, this is used when the bytes had to be decoded first
+	 * @param bytes the bytes to append
+	 * @param offset the offset to start from
+	 * @param length the amount of bytes to append
+	 */
+	void append(byte[] bytes, int offset, int length)
+	{
+		while(length > 0)
+		{
+			ByteBuffer tail = chunks.peekLast();
+
+			if(tail == null || !tail.hasRemaining())
+				chunks.addLast(tail = pool.take());
+
+			int amount = Math.min(length, tail.remaining());
+			tail.put(bytes, offset, amount);
+			offset += amount;
+			length -= amount;
+			size += amount;
+		}
+	}
+
+	/**
+	 * Returns an output stream that appends to this buffer
+	 * @return an output stream that appends to this buffer
+	 */
+	OutputStream asOutputStream()
+	{
+		if(stream == null)
+		{
+			stream = new OutputStream()
+			{
+				@Override
+				public void write(int b)
+				{
+					append(new byte[]{(byte) b}, 0, 1);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len)
+				{
+					append(b, off, len);
+				}
+			};
+		}
+
+		return stream;
+	}
+
+	/**
+	 * Returns the amount of unconsumed bytes
+	 * @return the amount of unconsumed bytes
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns a single unconsumed byte
+	 * @param index the index of the byte
+	 * @return the byte at the index
+	 */
+	public byte get(int index)
+	{
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+		int position = index + readOffset;
+
+		for(ByteBuffer chunk : chunks)
+		{
+			if(position < chunk.position())
+				return chunk.get(position);
+
+			position -= chunk.position();
+		}
+
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Copy unconsumed bytes into an array without consuming them
+	 * @param index the index of the first byte to copy
+	 * @param dst the array to copy into
+	 * @param offset the offset in the array to start at
+	 * @param length the amount of bytes to copy
+	 */
+	public void get(int index, byte[] dst, int offset, int length)
+	{
+		if(index < 0 || length < 0 || index + length > size)
+			throw new IndexOutOfBoundsException("Range " + index + "-" + (index + length) + " out of bounds for size " + size);
+
+		int position = index + readOffset;
+
+		for(ByteBuffer chunk : chunks)
+		{
+			if(length == 0)
+				return;
+
+			int filled = chunk.position();
+
+			if(position >= filled)
+			{
+				position -= filled;
+				continue;
+			}
+
+			int amount = Math.min(length, filled - position);
+			ByteBuffer source = chunk.duplicate();
+			((Buffer) source).limit(position + amount).position(position);
+			source.get(dst, offset, amount);
+
+			offset += amount;
+			length -= amount;
+			position = 0;
+		}
+	}
+
+	/**
+	 * Returns a copy of every unconsumed byte
+	 * @return a copy of every unconsumed byte
+	 */
+	public byte[] toByteArray()
+	{
+		byte[] bytes = new byte[size];
+		get(0, bytes, 0, size);
+		return bytes;
+	}
+
+	/**
+	 * Returns read-only views over every unconsumed byte, one per chunk, without copying anything.
+	 * The views are only valid until the bytes they cover are consumed
+	 * @return read-only views over every unconsumed byte
+	 */
+	public ByteBuffer[] views()
+	{
+		ByteBuffer[] views = new ByteBuffer[chunks.size()];
+		int i = 0;
+
+		for(ByteBuffer chunk : chunks)
+		{
+			ByteBuffer view = chunk.asReadOnlyBuffer();
+			((Buffer) view).flip();
+
+			if(i == 0)
+				((Buffer) view).position(readOffset);
+
+			views[i++] = view;
+		}
+
+		return views;
+	}
+
+	/**
+	 * Returns a read-only view over a range of unconsumed bytes. The view is zero-copy when the range sits in a single
+	 * chunk, otherwise the range is copied. A view is only valid until the bytes it covers are consumed
+	 * @param index the index of the first byte
+	 * @param length the amount of bytes
+	 * @return a read-only view over the range
+	 */
+	public ByteBuffer view(int index, int length)
+	{
+		if(index < 0 || length < 0 || index + length > size)
+			throw new IndexOutOfBoundsException("Range " + index + "-" + (index + length) + " out of bounds for size " + size);
+
+		int position = index + readOffset;
+
+		for(ByteBuffer chunk : chunks)
+		{
+			int filled = chunk.position();
+
+			if(position >= filled)
+			{
+				position -= filled;
+				continue;
+			}
+
+			if(position + length <= filled)
+			{
+				ByteBuffer view = chunk.asReadOnlyBuffer();
+				((Buffer) view).limit(position + length).position(position);
+				return view.slice();
+			}
+
+			break;
+		}
+
+		byte[] copy = new byte[length];
+		get(index, copy, 0, length);
+		return ByteBuffer.wrap(copy).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a byte
+	 * @param value the byte to search for
+	 * @return the index of the byte, or -1 if it has not been received
+	 */
+	public int indexOf(byte value)
+	{
+		return indexOf(value, 0);
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a byte at or after an index
+	 * @param value the byte to search for
+	 * @param from the index to start searching from
+	 * @return the index of the byte, or -1 if it has not been received
+	 */
+	public int indexOf(byte value, int from)
+	{
+		if(from < 0)
+			from = 0;
+
+		int position = from + readOffset;
+		int base = -readOffset;
+
+		for(ByteBuffer chunk : chunks)
+		{
+			int filled = chunk.position();
+
+			for(int i = position; i < filled; i++)
+				if(chunk.get(i) == value)
+					return base + i;
+
+			position = Math.max(0, position - filled);
+			base += filled;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a sequence of bytes, such as a delimiter
+	 * @param pattern the bytes to search for
+	 * @return the index of the first byte of the sequence, or -1 if it has not been received
+	 */
+	public int indexOf(byte[] pattern)
+	{
+		return indexOf(pattern, 0);
+	}
+
+	/**
+	 * Returns the index of the first occurrence of a sequence of bytes at or after an index
+	 * @param pattern the bytes to search for
+	 * @param from the index to start searching from
+	 * @return the index of the first byte of the sequence, or -1 if it has not been received
+	 */
+	public int indexOf(byte[] pattern, int from)
+	{
+		if(pattern.length == 0)
+			return Math.min(Math.max(from, 0), size);
+
+		int index = from;
+
+		while((index = indexOf(pattern[0], index)) >= 0 && index + pattern.length <= size)
+		{
+			if(startsWith(pattern, index))
+				return index;
+
+			index++;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns true if the unconsumed bytes contain a sequence of bytes at an index
+	 * @param pattern the bytes to compare
+	 * @param index the index to compare at
+	 * @return true if the bytes at the index match the sequence
+	 */
+	public boolean startsWith(byte[] pattern, int index)
+	{
+		if(index < 0 || index + pattern.length > size)
+			return false;
+
+		for(int i = 0; i < pattern.length; i++)
+			if(get(index + i) != pattern[i])
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Consume bytes from the front of the buffer, the rest stay where they are. Fully consumed chunks go back to the pool
+	 * @param amount the amount of bytes to consume
+	 */
+	public void consume(int amount)
+	{
+		if(amount < 0 || amount > size)
+			throw new IndexOutOfBoundsException("Cannot consume " + amount + " bytes of " + size);
+
+		size -= amount;
+		readOffset += amount;
+
+		ByteBuffer chunk;
+		while((chunk = chunks.peekFirst()) != null && readOffset >= chunk.position())
+		{
+			//everything has been consumed, keep the last chunk for the next read if it still has room
+			if(chunks.size() == 1 && chunk.hasRemaining())
+			{
+				((Buffer) chunk).clear();
+				readOffset = 0;
+				break;
+			}
+
+			readOffset -= chunk.position();
+			pool.give(chunks.pollFirst());
+		}
+	}
+
+	/**
+	 * Consume every byte in the buffer
+	 */
+	public void clear()
+	{
+		consume(size);
+	}
+
+	/**
+	 * Returns a copy of the last bytes appended, this is used to record traffic
+	 * @param length the amount of bytes
+	 * @return a copy of the last bytes appended
+	 */
+	byte[] copyTail(int length)
+	{
+		byte[] bytes = new byte[length];
+		get(size - length, bytes, 0, length);
+		return bytes;
+	}
+
+	/**
+	 * Return every chunk to the pool, the buffer can still be used afterwards
+	 */
+	void release()
+	{
+		ByteBuffer chunk;
+		while((chunk = chunks.pollFirst()) != null)
+			pool.give(chunk);
+
+		readOffset = 0;
+		size = 0;
+		spares = 1;
+	}
+}
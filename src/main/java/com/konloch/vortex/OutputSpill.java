@@ -0,0 +1,99 @@
+package com.konloch.vortex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Pending output for a single client that has been moved off the heap into a temporary file.
+ * The file is unlinked as soon as it has been opened, so nothing is left behind even if the process dies. Where an open
+ * file cannot be deleted it is deleted once it is closed instead.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+class OutputSpill
+{
+	private final FileChannel channel;
+	private final OutputStream stream;
+	private long writePosition;
+	private long readPosition;
+
+	/**
+	 * Create a new temporary spill file
+	 * @param directory the directory to create the file in, or null for the default temporary directory
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	OutputSpill(Path directory) throws IOException
+	{
+		Path file = directory == null ? Files.createTempFile("vortex-", ".spill")
+				: Files.createTempFile(directory, "vortex-", ".spill");
+
+		this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE);
+		this.stream = Channels.newOutputStream(channel);
+
+		try
+		{
+			Files.delete(file);
+		}
+		catch (IOException e)
+		{
+			//the file is still deleted on close
+		}
+	}
+
+	/**
+	 * Append the contents of a buffer to the end of the file
+	 * @param buffer the buffer to append, it is not reset
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	void append(ByteArrayOutputStream buffer) throws IOException
+	{
+		buffer.writeTo(stream);
+		writePosition += buffer.size();
+	}
+
+	/**
+	 * Transfer as much of the file as the target will accept, this lets the kernel copy straight from the page cache
+	 * @param target the channel to transfer to
+	 * @return the amount of bytes transferred
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	long transferTo(WritableByteChannel target) throws IOException
+	{
+		long transferred = channel.transferTo(readPosition, writePosition - readPosition, target);
+		readPosition += transferred;
+		return transferred;
+	}
+
+	/**
+	 * Returns the amount of bytes not yet transferred
+	 * @return the amount of bytes not yet transferred
+	 */
+	long pending()
+	{
+		return writePosition - readPosition;
+	}
+
+	/**
+	 * Close and delete the file
+	 */
+	void close()
+	{
+		try
+		{
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
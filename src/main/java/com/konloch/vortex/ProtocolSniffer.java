@@ -0,0 +1,279 @@
+package com.konloch.vortex;
+
+import com.konloch.vortex.interfaces.ClientRunnable;
+import com.konloch.vortex.interfaces.ProtocolMatcher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request handler that serves several protocols from a single listener and thread pool.
+ * <p>
+ * Set it as the server's request handler. It inspects the first bytes of every new connection, and once a protocol
+ * matches it runs that protocol's initializer, binds the protocol's handler to the client with
+ * {@link Client#setRequestHandler(ClientRunnable)} and calls it straight away. From then on the sniffer is out of
+ * the path entirely. Protocols are tried in the order they were added, and a protocol that needs more bytes to decide
+ * is waited on before any later protocol is tried. Protocols where the server speaks first can not be sniffed, they
+ * should be served by the fallback handler instead.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class ProtocolSniffer implements ClientRunnable
+{
+	private final List<Protocol> protocols = new ArrayList<>();
+	private ClientRunnable fallback;
+	private int maxSniffBytes = 64;
+
+	/**
+	 * Add a protocol
+	 * @param name the name of the protocol, used for debugging
+	 * @param matcher decides if a connection belongs to this protocol
+	 * @param handler the request handler bound to matching connections
+	 * @return this instance for method chaining
+	 */
+	public ProtocolSniffer addProtocol(String name, ProtocolMatcher matcher, ClientRunnable handler)
+	{
+		return addProtocol(name, matcher, handler, null);
+	}
+
+	/**
+	 * Add a protocol
+	 * @param name the name of the protocol, used for debugging
+	 * @param matcher decides if a connection belongs to this protocol
+	 * @param handler the request handler bound to matching connections
+	 * @param initializer called once on a matching connection before its handler, such as to set up a decoder, or null for none
+	 * @return this instance for method chaining
+	 */
+	public ProtocolSniffer addProtocol(String name, ProtocolMatcher matcher, ClientRunnable handler, ClientRunnable initializer)
+	{
+		protocols.add(new Protocol(name, matcher, handler, initializer));
+		return this;
+	}
+
+	/**
+	 * Returns the handler bound to connections no protocol matched
+	 * @return the fallback handler, or null if those connections are closed
+	 */
+	public ClientRunnable getFallback()
+	{
+		return fallback;
+	}
+
+	/**
+	 * Set the handler bound to connections no protocol matched
+	 * @param fallback any request handler, or null to close those connections
+	 * @return this instance for method chaining
+	 */
+	public ProtocolSniffer setFallback(ClientRunnable fallback)
+	{
+		this.fallback = fallback;
+		return this;
+	}
+
+	/**
+	 * Returns the amount of bytes that can be received before a connection still waiting on a matcher is treated as unmatched,
+	 * matchers are never handed more than this
+	 * @return the maximum amount of bytes inspected
+	 */
+	public int getMaxSniffBytes()
+	{
+		return maxSniffBytes;
+	}
+
+	/**
+	 * Set the amount of bytes that can be received before a connection still waiting on a matcher is treated as unmatched,
+	 * matchers are never handed more than this
+	 * @param maxSniffBytes the maximum amount of bytes inspected
+	 * @return this instance for method chaining
+	 */
+	public ProtocolSniffer setMaxSniffBytes(int maxSniffBytes)
+	{
+		this.maxSniffBytes = maxSniffBytes;
+		return this;
+	}
+
+	@Override
+	public void run(Client client)
+	{
+		InputBuffer input = client.getInput();
+		int size = input != null ? input.size() : client.getInputBuffer().size();
+
+		if(size == 0)
+			return;
+
+		//only the head is inspected, however much has been received
+		HeadCopy head = new HeadCopy(Math.min(size, maxSniffBytes));
+
+		if(input != null)
+		{
+			input.get(0, head.bytes, 0, head.bytes.length);
+		}
+		else
+		{
+			try
+			{
+				client.getInputBuffer().writeTo(head);
+			}
+			catch (IOException e)
+			{
+				//the head copy never throws
+			}
+		}
+
+		//wait for more bytes unless the connection has sent all it is going to, or more than enough to tell
+		boolean canWait = size < maxSniffBytes && !client.isEndOfStream();
+
+		for(Protocol protocol : protocols)
+		{
+			switch(protocol.matcher.match(head.bytes))
+			{
+				case MATCH:
+					bind(client, protocol.handler, protocol.initializer);
+					return;
+
+				//a later protocol could match already, but this one comes first
+				case NEED_MORE:
+					if(canWait)
+						return;
+
+					break;
+			}
+		}
+
+		if(fallback != null)
+		{
+			bind(client, fallback, null);
+			return;
+		}
+
+		try
+		{
+			client.getTransport().close();
+		}
+		catch (Exception e)
+		{
+			//ignore
+		}
+	}
+
+	/**
+	 * Bind a protocol to a client and hand it the bytes received so far
+	 * @param client the socket client
+	 * @param handler the request handler of the protocol
+	 * @param initializer the initializer of the protocol, or null for none
+	 */
+	private void bind(Client client, ClientRunnable handler, ClientRunnable initializer)
+	{
+		if(initializer != null)
+			initializer.run(client);
+
+		client.setRequestHandler(handler);
+		handler.run(client);
+	}
+
+	/**
+	 * Returns a matcher for protocols that always start with one of several fixed prefixes
+	 * @param prefixes the prefixes, such as HTTP request methods
+	 * @return a prefix matcher
+	 */
+	public static ProtocolMatcher prefix(String... prefixes)
+	{
+		byte[][] bytes = new byte[prefixes.length][];
+
+		for(int i = 0; i < prefixes.length; i++)
+			bytes[i] = prefixes[i].getBytes(StandardCharsets.US_ASCII);
+
+		return prefix(bytes);
+	}
+
+	/**
+	 * Returns a matcher for protocols that always start with one of several fixed prefixes
+	 * @param prefixes the prefixes, such as a magic number
+	 * @return a prefix matcher
+	 */
+	public static ProtocolMatcher prefix(byte[]... prefixes)
+	{
+		return head ->
+		{
+			ProtocolMatcher.Result result = ProtocolMatcher.Result.NO_MATCH;
+
+			for(byte[] prefix : prefixes)
+			{
+				int length = Math.min(prefix.length, head.length);
+				boolean matches = true;
+
+				for(int i = 0; i < length && matches; i++)
+					matches = head[i] == prefix[i];
+
+				if(!matches)
+					continue;
+
+				//the whole prefix has arrived, otherwise it can still go either way
+				if(length == prefix.length)
+					return ProtocolMatcher.Result.MATCH;
+
+				result = ProtocolMatcher.Result.NEED_MORE;
+			}
+
+			return result;
+		};
+	}
+
+	/**
+	 * Keeps only the first bytes written to it, so the head of the input buffer is taken without copying all of it
+	 */
+	private static class HeadCopy extends OutputStream
+	{
+		private final byte[] bytes;
+		private int position;
+
+		private HeadCopy(int length)
+		{
+			this.bytes = new byte[length];
+		}
+
+		@Override
+		public void write(int b)
+		{
+			if(position < bytes.length)
+				bytes[position++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			int amount = Math.min(len, bytes.length - position);
+			System.arraycopy(b, off, bytes, position, amount);
+			position += amount;
+		}
+	}
+
+	/**
+	 * A protocol the sniffer can bind
+	 */
+	private static class Protocol
+	{
+		private final String name;
+		private final ProtocolMatcher matcher;
+		private final ClientRunnable handler;
+		private final ClientRunnable initializer;
+
+		private Protocol(String name, ProtocolMatcher matcher, ClientRunnable handler, ClientRunnable initializer)
+		{
+			this.name = name;
+			this.matcher = matcher;
+			this.handler = handler;
+			this.initializer = initializer;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Protocol[" + name + "]";
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.konloch.vortex;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sequences pipelined requests for a single client so they can be processed concurrently,
+ * complete out of order, and still have their responses written strictly in request order.
+ * <p>
+ * The request handler reserves a slot for each decoded request on the IO thread, any thread may then complete it.
+ * Completed responses are released to the client on the IO thread once every earlier response has been released.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class RequestPipeline
+{
+	private final Client client;
+	private final AtomicReferenceArray<byte[]> slots;
+	private long nextSequence;
+	private long releaseSequence;
+
+	/**
+	 * Construct a new request pipeline
+	 * @param client the client the responses will be written to
+	 * @param maxInFlight the maximum amount of requests that can be in-flight at once
+	 */
+	public RequestPipeline(Client client, int maxInFlight)
+	{
+		if(maxInFlight <= 0)
+			throw new IllegalArgumentException("Max in-flight requests must be greater than zero");
+
+		this.client = client;
+		this.slots = new AtomicReferenceArray<>(maxInFlight);
+	}
+
+	/**
+	 * Reserve the next slot in the sequence, this must be called from the request handler
+	 * @return the sequence number for the request, or -1 if the maximum amount of in-flight requests has been reached
+	 */
+	public long reserve()
+	{
+		if(isFull())
+			return -1;
+
+		return nextSequence++;
+	}
+
+	/**
+	 * Complete a request, this is safe to call from any thread
+	 * @param sequence the sequence number returned by {@link #reserve()}
+	 * @param response the response bytes, use an empty array if the request has no response
+	 */
+	public void complete(long sequence, byte[] response)
+	{
+		if(response == null)
+			throw new IllegalArgumentException("Response cannot be null");
+
+		if(!slots.compareAndSet(index(sequence), null, response))
+			throw new IllegalStateException("Request " + sequence + " has already been completed");
+
+		client.wakeup();
+	}
+
+	/**
+	 * Writes every completed response that is next in line to the client, this is called by the IO thread
+	 * @return the amount of responses released
+	 */
+	int release()
+	{
+		int released = 0;
+
+		while(releaseSequence < nextSequence)
+		{
+			int index = index(releaseSequence);
+			byte[] response = slots.get(index);
+
+			if(response == null)
+				break;
+
+			slots.set(index, null);
+			releaseSequence++;
+			released++;
+
+			if(response.length > 0)
+				client.write(response);
+		}
+
+		return released;
+	}
+
+	/**
+	 * Returns true if the response next in line has been completed and is waiting to be released
+	 * @return true if {@link #release()} would write at least one response
+	 */
+	boolean isReleasable()
+	{
+		return releaseSequence < nextSequence && slots.get(index(releaseSequence)) != null;
+	}
+
+	/**
+	 * Returns the amount of requests reserved but not yet released
+	 * @return the amount of requests reserved but not yet released
+	 */
+	public int getInFlight()
+	{
+		return (int) (nextSequence - releaseSequence);
+	}
+
+	/**
+	 * Returns the maximum amount of requests that can be in-flight at once
+	 * @return the maximum amount of requests that can be in-flight at once
+	 */
+	public int getMaxInFlight()
+	{
+		return slots.length();
+	}
+
+	/**
+	 * Returns true if no more requests can be reserved until earlier responses have been released
+	 * @return true if no more requests can be reserved
+	 */
+	public boolean isFull()
+	{
+		return getInFlight() >= slots.length();
+	}
+
+	/**
+	 * Map a sequence number onto its slot
+	 * @param sequence any sequence number
+	 * @return the slot index
+	 */
+	private int index(long sequence)
+	{
+		return (int) (sequence % slots.length());
+	}
+}
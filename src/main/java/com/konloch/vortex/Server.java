@@ -1,13 +1,31 @@
 package com.konloch.vortex;
 
+import com.konloch.vortex.idle.SleepingIdleStrategy;
+import com.konloch.vortex.interfaces.IdleStrategy;
 import com.konloch.vortex.interfaces.IsAllowed;
 import com.konloch.vortex.interfaces.ClientRunnable;
+import com.konloch.vortex.interfaces.StallHandler;
+import com.konloch.vortex.interfaces.Transport;
+import com.konloch.vortex.transport.SocketTransport;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketOption;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * @author Konloch
@@ -18,15 +36,52 @@ public class Server extends Thread
 	private final String hostname;
 	private final int port;
 	private ServerSocketChannel server;
+	private ServerSocketChannel unixServer;
+	private Path unixDomainSocketPath;
 	private final IO[] threadPool;
 	private IsAllowed networkConnectionFilter;
 	private ClientRunnable requestHandler;
 	private ClientRunnable onDisconnect;
+	private Supplier<IdleStrategy> acceptorIdleStrategy = SleepingIdleStrategy::new;
+	private Supplier<IdleStrategy> ioIdleStrategy = SleepingIdleStrategy::new;
+	private volatile IdleStrategy acceptorIdle;
 	private int threadPoolCounter;
-	private boolean running;
+	private volatile boolean running;
 	private boolean bound;
 	private int ioAmount = 1024;
 	private int timeout = 30_000;
+	private boolean writeCoalescing;
+	private boolean autoFlush;
+	private int maxWriteDelay = 5;
+	private int maxPipelinedRequests = 16;
+	private Compression compression;
+	private long outputSpillThreshold;
+	private Path outputSpillDirectory;
+	private boolean closeOnEndOfStream;
+	private boolean clientPooling;
+	private int maxPooledClients = 1024;
+	private final Queue<Client> clientPool = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger clientPoolSize = new AtomicInteger();
+	private int stallThreshold;
+	private StallHandler stallHandler;
+	private boolean avoidStalledThreads;
+	private int maxConnections;
+	private int maxConnectionsPerAddress;
+	private int maxLoopLatency;
+	private long maxPendingOutput;
+	private int shedIdleConnections;
+	private boolean handlerStealing;
+	private TrafficRecorder trafficRecorder;
+	private boolean compositeInput;
+	private int inputChunkSize = 4096;
+	private volatile ChunkPool chunkPool;
+	private boolean reusePort;
+	private boolean inheritChannel;
+	private volatile long drainDeadline;
+	private final AtomicInteger connectionCount = new AtomicInteger();
+	private volatile SocketChannel heldConnection;
+	private final Object acceptLock = new Object();
+	private final Map<InetAddress, Integer> connectionsPerAddress = new ConcurrentHashMap<>();
 	private long uidCounter;
 	
 	/**
@@ -54,9 +109,24 @@ public class Server extends Thread
 		this("0.0.0.0", port, threadPool, networkConnectionFilter, requestHandler, onDisconnect);
 	}
 
+	/**
+	 * Construct a new Socket Server that only listens on a unix domain socket, this requires Java 16 or higher
+	 * @param unixDomainSocketPath the path of the unix domain socket file
+	 * @param threadPool the amount of threads that will be started
+	 * @param networkConnectionFilter the pre-requst filter
+	 * @param requestHandler the request handler
+	 * @param onDisconnect called any time the client disconnects
+	 */
+	public Server(Path unixDomainSocketPath, int threadPool, IsAllowed networkConnectionFilter,
+	              ClientRunnable requestHandler, ClientRunnable onDisconnect)
+	{
+		this(null, -1, threadPool, networkConnectionFilter, requestHandler, onDisconnect);
+		this.unixDomainSocketPath = unixDomainSocketPath;
+	}
+
 	/**
 	 * Construct a new Socket Server
-	 * @param hostname the hostname the socket will bind to
+	 * @param hostname the hostname the socket will bind to, or null to only listen on a unix domain socket
 	 * @param port any port between 0-65,535
 	 * @param threadPool the amount of threads that will be started
 	 * @param networkConnectionFilter the pre-requst filter
@@ -84,14 +154,57 @@ public class Server extends Thread
 		if(bound)
 			return this;
 		
-		this.server = ServerSocketChannel.open();
-		//bind and configure non-blocking
-		server.bind(new InetSocketAddress(hostname, port));
-		server.configureBlocking(false);
+		//a listener handed over by whatever started this process takes the place of binding a new one
+		Channel inherited = inheritChannel ? System.inheritedChannel() : null;
+		
+		if(inherited instanceof ServerSocketChannel)
+		{
+			this.server = (ServerSocketChannel) inherited;
+			server.configureBlocking(false);
+		}
+		else if(hostname != null)
+		{
+			this.server = ServerSocketChannel.open();
+			
+			if(reusePort)
+				enableReusePort(server);
+			
+			//bind and configure non-blocking
+			server.bind(new InetSocketAddress(hostname, port));
+			server.configureBlocking(false);
+		}
+		
+		if(unixDomainSocketPath != null)
+		{
+			this.unixServer = UnixDomainSockets.open(unixDomainSocketPath);
+			unixServer.configureBlocking(false);
+		}
+		
 		bound = true;
 		return this;
 	}
 	
+	/**
+	 * Enable SO_REUSEPORT on a listener, the option is looked up by name since it is not part of the Java 8 API
+	 * @param listener the unbound server socket channel
+	 * @throws IOException thrown if the platform does not support SO_REUSEPORT
+	 */
+	@SuppressWarnings("unchecked")
+	private static void enableReusePort(ServerSocketChannel listener) throws IOException
+	{
+		for(SocketOption<?> option : listener.supportedOptions())
+		{
+			if(option.name().equals("SO_REUSEPORT") && option.type() == Boolean.class)
+			{
+				listener.setOption((SocketOption<Boolean>) option, true);
+				return;
+			}
+		}
+		
+		listener.close();
+		throw new IOException("SO_REUSEPORT is not supported on this platform");
+	}
+	
 	/**
 	 * Starts the thread pool and waits for all incoming connections
 	 */
@@ -114,38 +227,76 @@ public class Server extends Thread
 		if(running)
 			return;
 		
+		//the thread pool is filled before the server is flagged as running, so transports can be accepted from then on
+		for(int i = 0; i < threadPool.length; i++)
+			threadPool[i] = new IO(this, i);
+		
 		running = true;
 		
-		for(int i = 0; i < threadPool.length; i++)
+		for(IO socketIO : threadPool)
+			new Thread(socketIO).start();
+		
+		if(stallThreshold > 0)
+		{
+			Thread watchdog = new Thread(new Watchdog(this, threadPool), "Vortex IO Watchdog");
+			watchdog.setDaemon(true);
+			watchdog.start();
+		}
+		
+		IdleStrategy idleStrategy = acceptorIdle = acceptorIdleStrategy.get();
+		
+		try
+		{
+			if(server != null)
+				idleStrategy.register(server, SelectionKey.OP_ACCEPT);
+			
+			if(unixServer != null)
+				idleStrategy.register(unixServer, SelectionKey.OP_ACCEPT);
+		}
+		catch (IOException e)
 		{
-			IO socketIO = new IO(this);
-			new Thread(threadPool[i] = socketIO).start();
+			e.printStackTrace();
 		}
 		
 		while(running)
 		{
 			try
 			{
+				//leave new connections in the kernel backlog until the IO threads have caught up
+				if(!canAccept())
+				{
+					//only shed idle clients while there is a new connection waiting for their place
+					if(shedIdleConnections > 0 && (heldConnection != null || holdConnection()))
+						shedIdleConnections();
+					
+					LockSupport.parkNanos(100_000);
+					continue;
+				}
+				
 				//accept connection is a non-blocking call.
 				//it will only allow the thread to rest if an incoming connection did not queue
 				//this keeps the socket server ready for burst connections but able to rest when there are none coming in
-				if(!acceptConnection())
-				{
-					try
-					{
-						Thread.sleep(1);
-					}
-					catch (InterruptedException e)
-					{
-						e.printStackTrace();
-					}
-				}
+				idleStrategy.idle(acceptConnection() ? 1 : 0);
 			}
 			catch (IOException e)
 			{
 				e.printStackTrace();
 			}
 		}
+		
+		if(heldConnection != null)
+		{
+			try
+			{
+				heldConnection.close();
+			}
+			catch (IOException e)
+			{
+				//ignore
+			}
+		}
+		
+		idleStrategy.close();
 	}
 	
 	/**
@@ -155,32 +306,155 @@ public class Server extends Thread
 	 */
 	public boolean acceptConnection() throws IOException
 	{
-		SocketChannel channel = server.accept();
+		synchronized (acceptLock)
+		{
+			return acceptPending();
+		}
+	}
+	
+	/**
+	 * Accept a held connection or a single connection from each listener
+	 * @return true if a connection has been accepted
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	private boolean acceptPending() throws IOException
+	{
+		//a connection held while shedding idle clients is first in line
+		if(heldConnection != null)
+		{
+			SocketChannel channel = heldConnection;
+			heldConnection = null;
+			acceptConnection(channel);
+			return true;
+		}
+		
+		boolean accepted = server != null && acceptConnection(server);
+		
+		if(unixServer != null && acceptConnection(unixServer))
+			accepted = true;
+		
+		return accepted;
+	}
+	
+	/**
+	 * Attempts to accept an incoming socket connection from a single listener
+	 * @param listener the listening server socket channel
+	 * @return true if a connection has been accepted
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	private boolean acceptConnection(ServerSocketChannel listener) throws IOException
+	{
+		SocketChannel channel = listener.accept();
 		
 		if(channel == null)
 			return false;
 		
+		acceptConnection(channel);
+		return true;
+	}
+	
+	/**
+	 * Accept a connection taken from the kernel backlog or one held while shedding idle clients
+	 * @param channel the accepted socket channel
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	private void acceptConnection(SocketChannel channel) throws IOException
+	{
 		//enable nio
 		channel.configureBlocking(false);
 		
-		//build the socket client instance
-		Client client = new Client(this, channel, uidCounter++);
+		accept(new SocketTransport(channel));
+	}
+	
+	/**
+	 * Accept a connection over any transport, such as an in-memory {@link com.konloch.vortex.transport.PipeTransport}.
+	 * It goes through the network connection filter and connection limits the same way a socket connection does,
+	 * except that a transport over the global limit is closed, since there is no backlog to leave it in.
+	 * This is safe to call from any thread once the server is running
+	 * @param transport any connected, non-blocking transport
+	 */
+	public void accept(Transport transport)
+	{
+		synchronized (acceptLock)
+		{
+			//a server shutting down gracefully turns away anything new
+			if(isDraining())
+			{
+				try
+				{
+					transport.close();
+				}
+				catch (IOException e)
+				{
+					//ignore
+				}
+				
+				return;
+			}
+			
+			acceptTransport(transport);
+		}
+	}
+	
+	/**
+	 * Build a client for a newly accepted transport and hand it to an IO thread if it is allowed in
+	 * @param transport the accepted transport
+	 */
+	private void acceptTransport(Transport transport)
+	{
+		//build the socket client instance, reusing a pooled one if there is one available
+		Client client = clientPool.poll();
+		
+		if(client != null)
+		{
+			clientPoolSize.decrementAndGet();
+			client.open(transport, uidCounter++);
+		}
+		else
+		{
+			client = new Client(this, transport, uidCounter++);
+		}
+		
+		FlightRecorderEvents.Accept acceptEvent = new FlightRecorderEvents.Accept();
 		
 		//verify the socket client is allowed in
-		if(networkConnectionFilter == null || networkConnectionFilter.allowed(client))
+		if((networkConnectionFilter == null || networkConnectionFilter.allowed(client)) && admit(client))
 		{
-			//TODO thread pool should be assigned to the thread pool with the lowest amount of clients
-			threadPool[threadPoolCounter++].getClients().add(client);
+			IO io = nextIO();
 			
-			if (threadPoolCounter >= threadPool.length)
-				threadPoolCounter = 0;
+			if(acceptEvent.shouldCommit())
+			{
+				acceptEvent.uid = client.getUID();
+				acceptEvent.remoteAddress = client.getRemoteAddress();
+				acceptEvent.ioThread = io.getIndex();
+				acceptEvent.accepted = true;
+				acceptEvent.commit();
+			}
+			
+			TrafficRecorder recorder = trafficRecorder;
+			
+			if(recorder != null && recorder.isSampled(client.getUID()))
+			{
+				client.setTrafficRecorder(recorder);
+				recorder.opened(client.getUID());
+			}
+			
+			io.addClient(client);
 		}
 		else
 		{
+			if(acceptEvent.shouldCommit())
+			{
+				acceptEvent.uid = client.getUID();
+				acceptEvent.remoteAddress = client.getRemoteAddress();
+				acceptEvent.ioThread = -1;
+				acceptEvent.accepted = false;
+				acceptEvent.commit();
+			}
+			
 			try
 			{
-				client.getSocket().close();
-				client.getSocket().socket().close();
+				transport.close();
 			}
 			catch (Exception e)
 			{
@@ -188,159 +462,1058 @@ public class Server extends Thread
 			}
 			finally
 			{
-				if(getOnDisconnect() != null)
-					getOnDisconnect().run(client);
+				clientDisconnected(client);
 			}
 		}
-		
-		return true;
 	}
 	
 	/**
-	 * Returns the port the socket server is bound to
-	 * @return the port the socket server is bound to
+	 * Take a single connection from the kernel backlog and hold it until a client has been shed to make room
+	 * @return true if a connection is now held
+	 * @throws IOException thrown if any IO issues are encountered.
 	 */
-	public int getPort()
+	private boolean holdConnection() throws IOException
 	{
-		return port;
+		synchronized (acceptLock)
+		{
+			if(server != null)
+				heldConnection = server.accept();
+			
+			if(heldConnection == null && unixServer != null)
+				heldConnection = unixServer.accept();
+			
+			return heldConnection != null;
+		}
 	}
 	
 	/**
-	 * Returns true if the socket server is still running
-	 * @return true if the socket server is still running
+	 * Count a client against the connection limits. The acceptor already holds socket connections back while the
+	 * global limit is reached, this also applies it to transports handed to {@link #accept(Transport)}
+	 * @param client the newly accepted client
+	 * @return true if the client is within the global and per-address connection limits
 	 */
-	public boolean isRunning()
+	private boolean admit(Client client)
 	{
-		return running;
+		if(connectionCount.incrementAndGet() > maxConnections && maxConnections > 0)
+		{
+			connectionCount.decrementAndGet();
+			return false;
+		}
+		
+		InetAddress address = null;
+		
+		if(maxConnectionsPerAddress > 0)
+		{
+			address = client.getTransport().getRemoteInetAddress();
+			
+			if(address != null && connectionsPerAddress.merge(address, 1, Integer::sum) > maxConnectionsPerAddress)
+			{
+				releaseAddress(address);
+				connectionCount.decrementAndGet();
+				return false;
+			}
+		}
+		
+		client.setAdmitted(true, address);
+		return true;
 	}
 	
 	/**
-	 * Stops the socket server
-	 * @return this instance for method chaining
+	 * Release a single connection held against an address
+	 * @param address the remote address
 	 */
-	public Server stopSocketServer()
+	private void releaseAddress(InetAddress address)
 	{
-		running = false;
-		return this;
+		connectionsPerAddress.computeIfPresent(address, (key, count) -> count <= 1 ? null : count - 1);
 	}
 	
 	/**
-	 * Returns true if the socket server has been stopped
-	 * @return true if the socket server has been stopped
+	 * Called once a client has been closed, this runs the onDisconnect handler, releases the connection limits
+	 * the client held and returns it to the pool if client pooling is enabled
+	 * @param client the disconnected client
 	 */
-	public boolean hasStopped()
+	void clientDisconnected(Client client)
 	{
-		return !running;
+		if(getOnDisconnect() != null)
+			getOnDisconnect().run(client);
+		
+		if(client.getTrafficRecorder() != null)
+		{
+			client.getTrafficRecorder().closed(client.getUID());
+			client.setTrafficRecorder(null);
+		}
+		
+		if(client.isAdmitted())
+		{
+			connectionCount.decrementAndGet();
+			
+			if(client.getAdmittedAddress() != null)
+				releaseAddress(client.getAdmittedAddress());
+			
+			client.setAdmitted(false, null);
+		}
+		
+		client.disconnected();
+		recycleClient(client);
 	}
 	
 	/**
-	 * Returns the request handler
-	 * @return the request handler
+	 * Returns true if the connection limit has been reached or every IO thread has passed the loop latency or
+	 * pending output limit, the acceptor stops accepting while this is true
+	 * @return true if the server is overloaded
 	 */
-	public ClientRunnable getRequestHandler()
+	public boolean isOverloaded()
 	{
-		return requestHandler;
+		if(maxConnections > 0 && connectionCount.get() >= maxConnections)
+			return true;
+		
+		if(maxLoopLatency <= 0 && maxPendingOutput <= 0)
+			return false;
+		
+		for(IO io : threadPool)
+			if(io == null || !io.isOverloaded())
+				return false;
+		
+		return true;
 	}
 	
 	/**
-	 * Set the request handler
-	 * @param requestHandler any request handler
-	 * @return this instance for method chaining
+	 * Returns true if the connection limit has not been reached and at least one IO thread can be given a new client
+	 * @return true if a new connection can be accepted
 	 */
-	public Server setRequestHandler(ClientRunnable requestHandler)
+	private boolean canAccept()
 	{
-		this.requestHandler = requestHandler;
-		return this;
+		if(maxConnections > 0 && connectionCount.get() >= maxConnections)
+			return false;
+		
+		if(maxLoopLatency <= 0 && maxPendingOutput <= 0)
+			return true;
+		
+		for(IO io : threadPool)
+			if(io != null && io.canAccept())
+				return true;
+		
+		return false;
 	}
 	
 	/**
-	 * Returns the onDisconnect handler
-	 * @return the onDisconnect handler
+	 * Returns true while a connection is held until an idle client has been shed to make room for it
+	 * @return true if an IO thread should still shed an idle client
 	 */
-	public ClientRunnable getOnDisconnect()
+	boolean isShedWanted()
 	{
-		return onDisconnect;
+		//the connection count is read before the held connection, a held connection taken after that is already counted
+		return !canAccept() && heldConnection != null;
 	}
 	
 	/**
-	 * Set the onDisconnect handler
-	 * @param onDisconnect any onDisconnet handler
-	 * @return this instance for method chaining
+	 * Ask every overloaded IO thread to close its longest idle client, if idle connection shedding is enabled
 	 */
-	public Server setOnDisconnect(ClientRunnable onDisconnect)
+	private void shedIdleConnections()
 	{
-		this.onDisconnect = onDisconnect;
-		return this;
+		if(shedIdleConnections <= 0)
+			return;
+		
+		boolean atLimit = maxConnections > 0 && connectionCount.get() >= maxConnections;
+		
+		for(IO io : threadPool)
+			if(io != null && (atLimit || io.isOverloaded()))
+				io.requestShed();
 	}
 	
 	/**
-	 * Returns the network connection filter
-	 * @return the network connection filter
+	 * Select the IO thread the next client is assigned to, overloaded threads and stalled threads if enabled are skipped
+	 * @return the IO thread
 	 */
-	public IsAllowed getNetworkConnectionFilter()
+	private IO nextIO()
 	{
-		return networkConnectionFilter;
+		//TODO thread pool should be assigned to the thread pool with the lowest amount of clients
+		for(int i = 0; i < threadPool.length; i++)
+		{
+			IO io = threadPool[threadPoolCounter++];
+			
+			if (threadPoolCounter >= threadPool.length)
+				threadPoolCounter = 0;
+			
+			if((!avoidStalledThreads || !io.isStalled()) && io.canAccept())
+				return io;
+		}
+		
+		//every thread is stalled or overloaded, fall back to plain round-robin
+		IO io = threadPool[threadPoolCounter++];
+		
+		if (threadPoolCounter >= threadPool.length)
+			threadPoolCounter = 0;
+		
+		return io;
 	}
 	
 	/**
-	 * Sets the network connection filter
-	 * @param networkConnectionFilter any network connection filter
-	 * @return this instance for method chaining
+	 * Return a disconnected client to the pool if client pooling is enabled
+	 * @param client the disconnected client
 	 */
-	public Server setNetworkConnectionFilter(IsAllowed networkConnectionFilter)
+	void recycleClient(Client client)
 	{
-		this.networkConnectionFilter = networkConnectionFilter;
-		return this;
+		if(!clientPooling || clientPoolSize.get() >= maxPooledClients)
+			return;
+		
+		client.recycle();
+		clientPoolSize.incrementAndGet();
+		clientPool.add(client);
 	}
 	
 	/**
-	 * Returns the socket client list for the supplied thread pool index
-	 * @param index any integer to represent the thread pool index
-	 * @return the socket client list for the supplied thread pool index
+	 * Returns the IO thread pool
+	 * @return the IO thread pool, an IO thread is null until the server has started it
 	 */
-	public List<Client> getClients(int index)
+	IO[] getThreadPool()
 	{
-		return threadPool[index].getClients();
+		return threadPool;
 	}
 	
 	/**
-	 * Returns the timeout value in milliseconds for network inactivity
-	 * @return the timeout value in milliseconds for network inactivity
+	 * Returns the port the socket server is bound to
+	 * @return the port the socket server is bound to
 	 */
-	public int getTimeout()
+	public int getPort()
 	{
-		return timeout;
+		return port;
 	}
 	
 	/**
-	 * Set the timeout value for network activity
-	 * @param timeout any integer representing the milliseconds for timeout from network activity
+	 * Returns the path of the unix domain socket file
+	 * @return the path of the unix domain socket file, or null if the server does not listen on one
+	 */
+	public Path getUnixDomainSocketPath()
+	{
+		return unixDomainSocketPath;
+	}
+	
+	/**
+	 * Set the path of a unix domain socket file to listen on, alongside the hostname and port if one was set.
+	 * This requires Java 16 or higher and must be set before the server is bound
+	 * @param unixDomainSocketPath the path of the unix domain socket file, or null to disable it
 	 * @return this instance for method chaining
 	 */
-	public Server setTimeout(int timeout)
+	public Server setUnixDomainSocketPath(Path unixDomainSocketPath)
 	{
-		this.timeout = timeout;
+		this.unixDomainSocketPath = unixDomainSocketPath;
 		return this;
 	}
 	
 	/**
-	 * Return the default size of the byte buffers
-	 * @return default size of the byte buffers
+	 * Returns true if the running Java version supports unix domain sockets
+	 * @return true if the running Java version supports unix domain sockets
 	 */
-	public int getIOAmount()
+	public static boolean isUnixDomainSocketSupported()
 	{
-		return ioAmount;
+		return UnixDomainSockets.isSupported();
 	}
 	
 	/**
-	 * Set the default size of the byte buffers
-	 * @param ioAmount any integer as the default size of the byte buffers
-	 * @return this instance for method chaining
+	 * Returns true if the socket server is still running
+	 * @return true if the socket server is still running
 	 */
-	public Server setIOAmount(int ioAmount)
+	public boolean isRunning()
 	{
-		this.ioAmount = ioAmount;
-		
+		return running;
+	}
+	
+	/**
+	 * Stops the socket server straight away, any output still queued is lost and open connections are left as they are.
+	 * Use {@link #shutdownGracefully(Duration)} to finish serving the open connections first
+	 * @return this instance for method chaining
+	 */
+	public Server stopSocketServer()
+	{
+		running = false;
+		
+		//wake up any threads blocked inside of their idle strategy
+		if(acceptorIdle != null)
+			acceptorIdle.wakeup();
+		
+		for(IO io : threadPool)
+			if(io != null)
+				io.wakeup();
+		
+		return this;
+	}
+	
+	/**
+	 * Stop the socket server once every open connection has been served, blocking until it has stopped.
+	 * <p>
+	 * The listeners are closed straight away, after anything already in their backlog has been accepted, so a
+	 * replacement process sharing the port through {@link #setReusePort(boolean)} or an inherited listener picks up
+	 * every new connection from then on. The open connections are then drained. A connection is closed once it has
+	 * nothing left to read, its handler has consumed all of its input and all of its output has been sent.
+	 * Connections still busy when the timeout runs out are closed once their IO thread finishes its current pass
+	 * @param timeout the longest the open connections are given to drain
+	 * @return true if every connection drained before the timeout ran out
+	 * @throws InterruptedException thrown if the calling thread is interrupted while waiting
+	 */
+	public boolean shutdownGracefully(Duration timeout) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + timeout.toMillis();
+		
+		synchronized (acceptLock)
+		{
+			try
+			{
+				while(System.currentTimeMillis() < deadline && acceptPending())
+				{
+					//take every connection the kernel has already completed, they would be reset on close
+				}
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+			
+			closeListeners();
+			drainDeadline = deadline;
+		}
+		
+		//wake up any threads blocked inside of their idle strategy, so idle clients are closed right away
+		if(acceptorIdle != null)
+			acceptorIdle.wakeup();
+		
+		for(IO io : threadPool)
+			if(io != null)
+				io.wakeup();
+		
+		while(connectionCount.get() > 0 && System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+		
+		boolean drained = connectionCount.get() == 0;
+		stopSocketServer();
+		return drained;
+	}
+	
+	/**
+	 * Close every listener, the unix domain socket file is left in place since a replacement may already be bound to it
+	 */
+	private void closeListeners()
+	{
+		for(ServerSocketChannel listener : new ServerSocketChannel[]{server, unixServer})
+		{
+			if(listener == null)
+				continue;
+			
+			try
+			{
+				listener.close();
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+		
+		server = null;
+		unixServer = null;
+	}
+	
+	/**
+	 * Returns true if the server is shutting down gracefully and draining its open connections
+	 * @return true if the server is shutting down gracefully
+	 */
+	public boolean isDraining()
+	{
+		return drainDeadline > 0;
+	}
+	
+	/**
+	 * Returns true if the socket server has been stopped
+	 * @return true if the socket server has been stopped
+	 */
+	public boolean hasStopped()
+	{
+		return !running;
+	}
+	
+	/**
+	 * Returns the request handler
+	 * @return the request handler
+	 */
+	public ClientRunnable getRequestHandler()
+	{
+		return requestHandler;
+	}
+	
+	/**
+	 * Set the request handler
+	 * @param requestHandler any request handler
+	 * @return this instance for method chaining
+	 */
+	public Server setRequestHandler(ClientRunnable requestHandler)
+	{
+		this.requestHandler = requestHandler;
+		return this;
+	}
+	
+	/**
+	 * Returns the onDisconnect handler
+	 * @return the onDisconnect handler
+	 */
+	public ClientRunnable getOnDisconnect()
+	{
+		return onDisconnect;
+	}
+	
+	/**
+	 * Set the onDisconnect handler
+	 * @param onDisconnect any onDisconnet handler
+	 * @return this instance for method chaining
+	 */
+	public Server setOnDisconnect(ClientRunnable onDisconnect)
+	{
+		this.onDisconnect = onDisconnect;
+		return this;
+	}
+	
+	/**
+	 * Returns the network connection filter
+	 * @return the network connection filter
+	 */
+	public IsAllowed getNetworkConnectionFilter()
+	{
+		return networkConnectionFilter;
+	}
+	
+	/**
+	 * Sets the network connection filter
+	 * @param networkConnectionFilter any network connection filter
+	 * @return this instance for method chaining
+	 */
+	public Server setNetworkConnectionFilter(IsAllowed networkConnectionFilter)
+	{
+		this.networkConnectionFilter = networkConnectionFilter;
+		return this;
+	}
+	
+	/**
+	 * Returns the socket client list for the supplied thread pool index
+	 * @param index any integer to represent the thread pool index
+	 * @return the socket client list for the supplied thread pool index
+	 */
+	public List<Client> getClients(int index)
+	{
+		return threadPool[index].getClients();
+	}
+	
+	/**
+	 * Returns the timeout value in milliseconds for network inactivity
+	 * @return the timeout value in milliseconds for network inactivity
+	 */
+	public int getTimeout()
+	{
+		return timeout;
+	}
+	
+	/**
+	 * Set the timeout value for network activity
+	 * @param timeout any integer representing the milliseconds for timeout from network activity
+	 * @return this instance for method chaining
+	 */
+	public Server setTimeout(int timeout)
+	{
+		this.timeout = timeout;
+		return this;
+	}
+	
+	/**
+	 * Return the default size of the byte buffers
+	 * @return default size of the byte buffers
+	 */
+	public int getIOAmount()
+	{
+		return ioAmount;
+	}
+	
+	/**
+	 * Set the default size of the byte buffers
+	 * @param ioAmount any integer as the default size of the byte buffers
+	 * @return this instance for method chaining
+	 */
+	public Server setIOAmount(int ioAmount)
+	{
+		this.ioAmount = ioAmount;
+		
+		return this;
+	}
+	
+	/**
+	 * Returns true if new clients hold their writes until flushed
+	 * @return true if new clients hold their writes until flushed
+	 */
+	public boolean isWriteCoalescing()
+	{
+		return writeCoalescing;
+	}
+	
+	/**
+	 * Set if new clients should be corked, their writes are then held until {@link Client#flush()} is called,
+	 * auto flush runs or the max write delay has passed. This batches many small writes into a single write call
+	 * @param writeCoalescing set true to cork new clients
+	 * @return this instance for method chaining
+	 */
+	public Server setWriteCoalescing(boolean writeCoalescing)
+	{
+		this.writeCoalescing = writeCoalescing;
+		return this;
+	}
+	
+	/**
+	 * Returns true if corked output is flushed after every request handler call
+	 * @return true if corked output is flushed after every request handler call
+	 */
+	public boolean isAutoFlush()
+	{
+		return autoFlush;
+	}
+	
+	/**
+	 * Set if corked output should be flushed after every request handler call, this batches all writes
+	 * made during a single handler call without needing an explicit flush
+	 * @param autoFlush set true to flush after every request handler call
+	 * @return this instance for method chaining
+	 */
+	public Server setAutoFlush(boolean autoFlush)
+	{
+		this.autoFlush = autoFlush;
+		return this;
+	}
+	
+	/**
+	 * Returns the max amount of milliseconds corked output is held for
+	 * @return the max amount of milliseconds corked output is held for
+	 */
+	public int getMaxWriteDelay()
+	{
+		return maxWriteDelay;
+	}
+	
+	/**
+	 * Set the max amount of milliseconds corked output is held for before it is flushed
+	 * @param maxWriteDelay any integer representing the max write delay in milliseconds
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxWriteDelay(int maxWriteDelay)
+	{
+		this.maxWriteDelay = maxWriteDelay;
+		return this;
+	}
+	
+	/**
+	 * Returns the maximum amount of pipelined requests each client can have in-flight
+	 * @return the maximum amount of pipelined requests each client can have in-flight
+	 */
+	public int getMaxPipelinedRequests()
+	{
+		return maxPipelinedRequests;
+	}
+	
+	/**
+	 * Set the maximum amount of pipelined requests each client can have in-flight, see {@link Client#getPipeline()}
+	 * @param maxPipelinedRequests any integer greater than zero
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxPipelinedRequests(int maxPipelinedRequests)
+	{
+		this.maxPipelinedRequests = maxPipelinedRequests;
+		return this;
+	}
+	
+	/**
+	 * Returns the compression settings new clients use
+	 * @return the compression settings, or null if compression is disabled
+	 */
+	public Compression getCompression()
+	{
+		return compression;
+	}
+	
+	/**
+	 * Set the compression settings new clients use, see {@link Compression} for the framing both ends must follow
+	 * @param compression any compression settings, or null to disable compression
+	 * @return this instance for method chaining
+	 */
+	public Server setCompression(Compression compression)
+	{
+		this.compression = compression;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of pending output a client can hold on the heap before it is spilled to a temporary file
+	 * @return the spill threshold in bytes, zero if spilling is disabled
+	 */
+	public long getOutputSpillThreshold()
+	{
+		return outputSpillThreshold;
+	}
+	
+	/**
+	 * Set the amount of pending output a client can hold on the heap before further output is spilled to a
+	 * temporary file, the file is streamed to the socket as it drains and deleted once sent or on disconnect
+	 * @param outputSpillThreshold the spill threshold in bytes, or zero to disable spilling
+	 * @return this instance for method chaining
+	 */
+	public Server setOutputSpillThreshold(long outputSpillThreshold)
+	{
+		this.outputSpillThreshold = outputSpillThreshold;
+		return this;
+	}
+	
+	/**
+	 * Returns the directory spill files are created in
+	 * @return the directory spill files are created in, or null for the default temporary directory
+	 */
+	public Path getOutputSpillDirectory()
+	{
+		return outputSpillDirectory;
+	}
+	
+	/**
+	 * Set the directory spill files are created in
+	 * @param outputSpillDirectory any directory, or null for the default temporary directory
+	 * @return this instance for method chaining
+	 */
+	public Server setOutputSpillDirectory(Path outputSpillDirectory)
+	{
+		this.outputSpillDirectory = outputSpillDirectory;
+		return this;
+	}
+	
+	/**
+	 * Returns true if clients are closed once the remote end has hung up and their output has been sent
+	 * @return true if clients are closed once the remote end has hung up
+	 */
+	public boolean isCloseOnEndOfStream()
+	{
+		return closeOnEndOfStream;
+	}
+	
+	/**
+	 * Set if clients should be closed once the remote end has hung up and all of their output has been sent,
+	 * otherwise they are kept until they time out so half-closed connections can still receive a response
+	 * @param closeOnEndOfStream set true to close clients once the remote end has hung up
+	 * @return this instance for method chaining
+	 */
+	public Server setCloseOnEndOfStream(boolean closeOnEndOfStream)
+	{
+		this.closeOnEndOfStream = closeOnEndOfStream;
+		return this;
+	}
+	
+	/**
+	 * Returns true if disconnected clients are pooled and reused for new connections
+	 * @return true if disconnected clients are pooled and reused for new connections
+	 */
+	public boolean isClientPooling()
+	{
+		return clientPooling;
+	}
+	
+	/**
+	 * Set if disconnected clients should be pooled and reused for new connections, along with their buffers and attachments.
+	 * A client must not be used after the onDisconnect handler has returned when this is enabled
+	 * @param clientPooling set true to pool disconnected clients
+	 * @return this instance for method chaining
+	 */
+	public Server setClientPooling(boolean clientPooling)
+	{
+		this.clientPooling = clientPooling;
+		return this;
+	}
+	
+	/**
+	 * Returns the maximum amount of disconnected clients kept in the pool
+	 * @return the maximum amount of disconnected clients kept in the pool
+	 */
+	public int getMaxPooledClients()
+	{
+		return maxPooledClients;
+	}
+	
+	/**
+	 * Set the maximum amount of disconnected clients kept in the pool
+	 * @param maxPooledClients any integer as the maximum pool size
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxPooledClients(int maxPooledClients)
+	{
+		this.maxPooledClients = maxPooledClients;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of milliseconds an IO thread can spend in a single pass or handler call before it is reported as stalled
+	 * @return the stall threshold in milliseconds, zero if the watchdog is disabled
+	 */
+	public int getStallThreshold()
+	{
+		return stallThreshold;
+	}
+	
+	/**
+	 * Set the amount of milliseconds an IO thread can spend in a single pass or handler call before the watchdog
+	 * logs its stack trace and calls the stall handler. The watchdog is started with the server if this is set
+	 * @param stallThreshold the stall threshold in milliseconds, or zero to disable the watchdog
+	 * @return this instance for method chaining
+	 */
+	public Server setStallThreshold(int stallThreshold)
+	{
+		this.stallThreshold = stallThreshold;
+		return this;
+	}
+	
+	/**
+	 * Returns the stall handler
+	 * @return the stall handler
+	 */
+	public StallHandler getStallHandler()
+	{
+		return stallHandler;
+	}
+	
+	/**
+	 * Set the stall handler, this is called from the watchdog thread once per stall
+	 * @param stallHandler any stall handler
+	 * @return this instance for method chaining
+	 */
+	public Server setStallHandler(StallHandler stallHandler)
+	{
+		this.stallHandler = stallHandler;
+		return this;
+	}
+	
+	/**
+	 * Returns true if new clients are kept off stalled IO threads
+	 * @return true if new clients are kept off stalled IO threads
+	 */
+	public boolean isAvoidStalledThreads()
+	{
+		return avoidStalledThreads;
+	}
+	
+	/**
+	 * Set if new clients should be kept off IO threads the watchdog has reported as stalled until they recover
+	 * @param avoidStalledThreads set true to keep new clients off stalled IO threads
+	 * @return this instance for method chaining
+	 */
+	public Server setAvoidStalledThreads(boolean avoidStalledThreads)
+	{
+		this.avoidStalledThreads = avoidStalledThreads;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of clients currently connected
+	 * @return the amount of clients currently connected
+	 */
+	public int getConnectionCount()
+	{
+		return connectionCount.get();
+	}
+	
+	/**
+	 * Returns the maximum amount of clients that can be connected at once
+	 * @return the maximum amount of clients, zero if there is no limit
+	 */
+	public int getMaxConnections()
+	{
+		return maxConnections;
+	}
+	
+	/**
+	 * Set the maximum amount of clients that can be connected at once, once reached the acceptor stops accepting
+	 * and new connections wait in the kernel backlog until a client disconnects
+	 * @param maxConnections the maximum amount of clients, or zero for no limit
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxConnections(int maxConnections)
+	{
+		this.maxConnections = maxConnections;
+		return this;
+	}
+	
+	/**
+	 * Returns the maximum amount of clients a single remote address can have connected at once
+	 * @return the maximum amount of clients per address, zero if there is no limit
+	 */
+	public int getMaxConnectionsPerAddress()
+	{
+		return maxConnectionsPerAddress;
+	}
+	
+	/**
+	 * Set the maximum amount of clients a single remote address can have connected at once,
+	 * connections past the limit are closed as soon as they are accepted
+	 * @param maxConnectionsPerAddress the maximum amount of clients per address, or zero for no limit
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxConnectionsPerAddress(int maxConnectionsPerAddress)
+	{
+		this.maxConnectionsPerAddress = maxConnectionsPerAddress;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of milliseconds a pass over every client can take before an IO thread is overloaded
+	 * @return the loop latency limit in milliseconds, zero if it is disabled
+	 */
+	public int getMaxLoopLatency()
+	{
+		return maxLoopLatency;
+	}
+	
+	/**
+	 * Set the amount of milliseconds a pass over every client can take before an IO thread is overloaded.
+	 * Overloaded threads are given no new clients, and accepting pauses once every thread is overloaded
+	 * @param maxLoopLatency the loop latency limit in milliseconds, or zero to disable it
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxLoopLatency(int maxLoopLatency)
+	{
+		this.maxLoopLatency = maxLoopLatency;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of output bytes an IO thread can have queued before it is overloaded
+	 * @return the pending output limit in bytes, zero if it is disabled
+	 */
+	public long getMaxPendingOutput()
+	{
+		return maxPendingOutput;
+	}
+	
+	/**
+	 * Set the amount of output bytes an IO thread can have queued across its clients before it is overloaded.
+	 * Overloaded threads are given no new clients, and accepting pauses once every thread is overloaded
+	 * @param maxPendingOutput the pending output limit in bytes, or zero to disable it
+	 * @return this instance for method chaining
+	 */
+	public Server setMaxPendingOutput(long maxPendingOutput)
+	{
+		this.maxPendingOutput = maxPendingOutput;
+		return this;
+	}
+	
+	/**
+	 * Returns the amount of milliseconds a client must be idle before it can be shed while the server is overloaded
+	 * @return the idle time in milliseconds, zero if shedding is disabled
+	 */
+	public int getShedIdleConnections()
+	{
+		return shedIdleConnections;
+	}
+	
+	/**
+	 * Set if idle clients should be closed while the server is overloaded, the longest idle client on each
+	 * overloaded IO thread is closed first, one at a time, so long as it has been idle for at least this long
+	 * @param shedIdleConnections the idle time in milliseconds, or zero to disable shedding
+	 * @return this instance for method chaining
+	 */
+	public Server setShedIdleConnections(int shedIdleConnections)
+	{
+		this.shedIdleConnections = shedIdleConnections;
+		return this;
+	}
+	
+	/**
+	 * Returns true if idle IO threads steal request handler calls from busy ones
+	 * @return true if idle IO threads steal request handler calls from busy ones
+	 */
+	public boolean isHandlerStealing()
+	{
+		return handlerStealing;
+	}
+	
+	/**
+	 * Set if idle IO threads should steal request handler calls from busy ones. Once an IO thread has read and written
+	 * every client it queues their handlers, idle IO threads then take handlers from the tail of that queue.
+	 * A client's handler is still only ever called by a single thread at a time and in order, but it may be called
+	 * from any IO thread, so handlers must not rely on thread confinement
+	 * @param handlerStealing set true to let idle IO threads steal request handler calls
+	 * @return this instance for method chaining
+	 */
+	public Server setHandlerStealing(boolean handlerStealing)
+	{
+		this.handlerStealing = handlerStealing;
+		return this;
+	}
+	
+	/**
+	 * Returns the traffic recorder
+	 * @return the traffic recorder, or null if traffic is not being recorded
+	 */
+	public TrafficRecorder getTrafficRecorder()
+	{
+		return trafficRecorder;
+	}
+	
+	/**
+	 * Set the traffic recorder, new connections it samples have their traffic recorded until they disconnect.
+	 * The recorder is not closed by the server
+	 * @param trafficRecorder any traffic recorder, or null to stop recording new connections
+	 * @return this instance for method chaining
+	 */
+	public Server setTrafficRecorder(TrafficRecorder trafficRecorder)
+	{
+		this.trafficRecorder = trafficRecorder;
+		return this;
+	}
+	
+	/**
+	 * Returns true if new clients read into a composite input buffer of pooled chunks
+	 * @return true if new clients read into a composite input buffer of pooled chunks
+	 */
+	public boolean isCompositeInput()
+	{
+		return compositeInput;
+	}
+	
+	/**
+	 * Set if new clients should read into a composite input buffer, available from {@link Client#getInput()}.
+	 * Reads are scattered straight into pooled direct chunks instead of being copied into the client's
+	 * ByteArrayOutputStream input buffer, which then stays empty
+	 * @param compositeInput set true to give new clients a composite input buffer
+	 * @return this instance for method chaining
+	 */
+	public Server setCompositeInput(boolean compositeInput)
+	{
+		this.compositeInput = compositeInput;
+		return this;
+	}
+	
+	/**
+	 * Returns the size of the chunks composite input buffers are made of
+	 * @return the size of the chunks in bytes
+	 */
+	public int getInputChunkSize()
+	{
+		return inputChunkSize;
+	}
+	
+	/**
+	 * Set the size of the chunks composite input buffers are made of, this must be set before the server is started
+	 * @param inputChunkSize the size of the chunks in bytes
+	 * @return this instance for method chaining
+	 */
+	public Server setInputChunkSize(int inputChunkSize)
+	{
+		this.inputChunkSize = inputChunkSize;
+		return this;
+	}
+	
+	/**
+	 * Returns true if the listener is bound with SO_REUSEPORT
+	 * @return true if the listener is bound with SO_REUSEPORT
+	 */
+	public boolean isReusePort()
+	{
+		return reusePort;
+	}
+	
+	/**
+	 * Set if the listener should be bound with SO_REUSEPORT, this must be set before the server is bound.
+	 * A replacement process can then bind the same port while this one is still running, and this one hands over
+	 * with {@link #shutdownGracefully(Duration)}. On Linux the kernel spreads new connections across every listener
+	 * on the port, so both processes must be running the same service. Binding fails if the platform does not
+	 * support SO_REUSEPORT
+	 * @param reusePort set true to bind the listener with SO_REUSEPORT
+	 * @return this instance for method chaining
+	 */
+	public Server setReusePort(boolean reusePort)
+	{
+		this.reusePort = reusePort;
+		return this;
+	}
+	
+	/**
+	 * Returns true if an inherited listener is used instead of binding a new one
+	 * @return true if an inherited listener is used instead of binding a new one
+	 */
+	public boolean isInheritChannel()
+	{
+		return inheritChannel;
+	}
+	
+	/**
+	 * Set if the listener should be taken from {@link System#inheritedChannel()} instead of being bound, this must be
+	 * set before the server is bound. This is the case when the process is started with a listening socket as its
+	 * standard input, such as by systemd socket activation with StandardInput=socket. The socket outlives every
+	 * process it is handed to, so a restart never refuses a connection, new ones wait in the backlog until the
+	 * replacement accepts them. The hostname and port are bound as usual if no listener was inherited
+	 * @param inheritChannel set true to use an inherited listener
+	 * @return this instance for method chaining
+	 */
+	public Server setInheritChannel(boolean inheritChannel)
+	{
+		this.inheritChannel = inheritChannel;
+		return this;
+	}
+	
+	/**
+	 * Returns the pool every composite input buffer takes its chunks from, it is created on first use
+	 * @return the chunk pool
+	 */
+	ChunkPool getChunkPool()
+	{
+		ChunkPool pool = chunkPool;
+		
+		if(pool == null)
+		{
+			synchronized (this)
+			{
+				if((pool = chunkPool) == null)
+					chunkPool = pool = new ChunkPool(inputChunkSize, 4096);
+			}
+		}
+		
+		return pool;
+	}
+	
+	/**
+	 * Returns the idle strategy factory used by the acceptor thread
+	 * @return the idle strategy factory used by the acceptor thread
+	 */
+	public Supplier<IdleStrategy> getAcceptorIdleStrategy()
+	{
+		return acceptorIdleStrategy;
+	}
+	
+	/**
+	 * Set the idle strategy used by the acceptor thread, this must be set before the server is started
+	 * @param acceptorIdleStrategy any idle strategy factory, such as BackoffIdleStrategy::new
+	 * @return this instance for method chaining
+	 */
+	public Server setAcceptorIdleStrategy(Supplier<IdleStrategy> acceptorIdleStrategy)
+	{
+		this.acceptorIdleStrategy = acceptorIdleStrategy;
+		return this;
+	}
+	
+	/**
+	 * Returns the idle strategy factory used by the IO threads
+	 * @return the idle strategy factory used by the IO threads
+	 */
+	public Supplier<IdleStrategy> getIOIdleStrategy()
+	{
+		return ioIdleStrategy;
+	}
+	
+	/**
+	 * Set the idle strategy used by the IO threads, each IO thread creates its own instance.
+	 * This must be set before the server is started
+	 * @param ioIdleStrategy any idle strategy factory, such as BusySpinIdleStrategy::new
+	 * @return this instance for method chaining
+	 */
+	public Server setIOIdleStrategy(Supplier<IdleStrategy> ioIdleStrategy)
+	{
+		this.ioIdleStrategy = ioIdleStrategy;
 		return this;
 	}
 	
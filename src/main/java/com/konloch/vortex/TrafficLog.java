@@ -0,0 +1,166 @@
+package com.konloch.vortex;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads back a log written by {@link TrafficRecorder}, one record at a time in the order they were recorded
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TrafficLog implements Closeable
+{
+	private static final byte[] EMPTY = new byte[0];
+
+	private final DataInputStream in;
+	private final long startTime;
+
+	/**
+	 * Open a traffic log
+	 * @param file the log file
+	 * @throws IOException thrown if any IO issues are encountered or the file is not a traffic log
+	 */
+	public TrafficLog(Path file) throws IOException
+	{
+		this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+
+		if(in.readInt() != TrafficRecorder.MAGIC)
+		{
+			in.close();
+			throw new IOException("Not a traffic log: " + file);
+		}
+
+		int version = in.readInt();
+
+		if(version != TrafficRecorder.VERSION)
+		{
+			in.close();
+			throw new IOException("Unsupported traffic log version " + version + ": " + file);
+		}
+
+		this.startTime = in.readLong();
+	}
+
+	/**
+	 * Returns the wall clock time recording started at
+	 * @return the wall clock time in milliseconds recording started at
+	 */
+	public long getStartTime()
+	{
+		return startTime;
+	}
+
+	/**
+	 * Read the next record
+	 * @return the next record, or null once the end of the log has been reached
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	public Record next() throws IOException
+	{
+		byte type;
+
+		try
+		{
+			type = in.readByte();
+		}
+		catch (EOFException e)
+		{
+			return null;
+		}
+
+		//the unused tail of the last mapped region is zero filled if the recorder was not closed
+		if(type == 0)
+			return null;
+
+		long uid = in.readLong();
+		long timestamp = in.readLong();
+		int length = in.readInt();
+		byte[] payload = EMPTY;
+
+		if(type == TrafficRecorder.READ || type == TrafficRecorder.WRITE)
+		{
+			payload = new byte[length];
+			in.readFully(payload);
+		}
+
+		return new Record(type, uid, timestamp, length, payload);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		in.close();
+	}
+
+	/**
+	 * A single recorded event on a connection
+	 */
+	public static class Record
+	{
+		private final byte type;
+		private final long uid;
+		private final long timestamp;
+		private final int length;
+		private final byte[] payload;
+
+		Record(byte type, long uid, long timestamp, int length, byte[] payload)
+		{
+			this.type = type;
+			this.uid = uid;
+			this.timestamp = timestamp;
+			this.length = length;
+			this.payload = payload;
+		}
+
+		/**
+		 * Returns the record type, one of the type constants in {@link TrafficRecorder}
+		 * @return the record type
+		 */
+		public byte getType()
+		{
+			return type;
+		}
+
+		/**
+		 * Returns the unique user id of the connection
+		 * @return the unique user id of the connection
+		 */
+		public long getUID()
+		{
+			return uid;
+		}
+
+		/**
+		 * Returns when this was recorded
+		 * @return the amount of nanoseconds since recording started
+		 */
+		public long getTimestamp()
+		{
+			return timestamp;
+		}
+
+		/**
+		 * Returns the amount of bytes read or written
+		 * @return the amount of bytes read or written, zero for open and close records
+		 */
+		public int getLength()
+		{
+			return length;
+		}
+
+		/**
+		 * Returns the bytes read or written
+		 * @return the bytes read or written, empty for open, close and elided write records
+		 */
+		public byte[] getPayload()
+		{
+			return payload;
+		}
+	}
+}
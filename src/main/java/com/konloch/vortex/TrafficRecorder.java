@@ -0,0 +1,213 @@
+package com.konloch.vortex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the raw bytes read from and written to sampled connections into a compact binary log,
+ * so real traffic can be replayed later with {@link TrafficReplay}.
+ * <p>
+ * The log is written through a memory-mapped, append-only region of the file that is remapped further along as it fills.
+ * It starts with a header of the magic number, the version and the wall clock time recording started at.
+ * Every record after that is a one byte type, the eight byte client uid, the eight byte amount of nanoseconds since recording
+ * started, a four byte length, then the payload. Spilled output is streamed straight from its file, so it is recorded by
+ * length only. A zero type marks the end of the log, see {@link TrafficLog} for reading it back.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TrafficRecorder implements Closeable
+{
+	public static final int MAGIC = 0x56585443;
+	public static final int VERSION = 1;
+	public static final byte OPEN = 1;
+	public static final byte READ = 2;
+	public static final byte WRITE = 3;
+	public static final byte WRITE_ELIDED = 4;
+	public static final byte CLOSE = 5;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_HEADER_SIZE = 21;
+
+	private final FileChannel channel;
+	private final int segmentSize;
+	private final int sampling;
+	private final long startNanos;
+	private MappedByteBuffer segment;
+	private long segmentPosition;
+	private boolean closed;
+
+	/**
+	 * Construct a new recorder that records every connection, mapping the file 64MB at a time
+	 * @param file the file to record to, it is replaced if it already exists
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	public TrafficRecorder(Path file) throws IOException
+	{
+		this(file, 1, 64 * 1024 * 1024);
+	}
+
+	/**
+	 * Construct a new recorder
+	 * @param file the file to record to, it is replaced if it already exists
+	 * @param sampling record one in every this many connections, 1 records every connection
+	 * @param segmentSize the amount of bytes of the file mapped at a time
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	public TrafficRecorder(Path file, int sampling, int segmentSize) throws IOException
+	{
+		this.sampling = Math.max(1, sampling);
+		this.segmentSize = segmentSize;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.startNanos = System.nanoTime();
+
+		map(0, HEADER_SIZE);
+		segment.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns true if the connection with this uid should be recorded
+	 * @param uid the unique user id of the connection
+	 * @return true if the connection should be recorded
+	 */
+	public boolean isSampled(long uid)
+	{
+		return uid % sampling == 0;
+	}
+
+	/**
+	 * Record that a connection has been opened
+	 * @param uid the unique user id of the connection
+	 */
+	void opened(long uid)
+	{
+		append(OPEN, uid, null, 0, 0);
+	}
+
+	/**
+	 * Record bytes read from a connection
+	 * @param uid the unique user id of the connection
+	 * @param bytes the bytes read
+	 * @param offset the offset to start from
+	 * @param length the amount of bytes read
+	 */
+	void read(long uid, byte[] bytes, int offset, int length)
+	{
+		append(READ, uid, bytes, offset, length);
+	}
+
+	/**
+	 * Record bytes written to a connection
+	 * @param uid the unique user id of the connection
+	 * @param bytes the bytes written
+	 * @param offset the offset to start from
+	 * @param length the amount of bytes written
+	 */
+	void written(long uid, byte[] bytes, int offset, int length)
+	{
+		append(WRITE, uid, bytes, offset, length);
+	}
+
+	/**
+	 * Record the amount of bytes written to a connection without their contents
+	 * @param uid the unique user id of the connection
+	 * @param length the amount of bytes written
+	 */
+	void writtenElided(long uid, int length)
+	{
+		append(WRITE_ELIDED, uid, null, 0, length);
+	}
+
+	/**
+	 * Record that a connection has been closed
+	 * @param uid the unique user id of the connection
+	 */
+	void closed(long uid)
+	{
+		append(CLOSE, uid, null, 0, 0);
+	}
+
+	/**
+	 * Append a single record, IO threads record concurrently so appends are serialized
+	 * @param type the record type
+	 * @param uid the unique user id of the connection
+	 * @param bytes the payload, or null if the record has none
+	 * @param offset the offset to start from
+	 * @param length the length field of the record
+	 */
+	private synchronized void append(byte type, long uid, byte[] bytes, int offset, int length)
+	{
+		if(closed)
+			return;
+
+		int size = RECORD_HEADER_SIZE + (bytes == null ? 0 : length);
+
+		try
+		{
+			if(segment.remaining() < size)
+				map(segmentPosition + segment.position(), size);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+
+			//stop recording rather than leave a gap in the log
+			close();
+			return;
+		}
+
+		segment.put(type).putLong(uid).putLong(System.nanoTime() - startNanos).putInt(length);
+
+		if(bytes != null)
+			segment.put(bytes, offset, length);
+	}
+
+	/**
+	 * Map the next region of the file, the file grows as regions past its end are mapped
+	 * @param position the position in the file to start the region at
+	 * @param minimumSize the least amount of bytes the region must hold
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	private void map(long position, int minimumSize) throws IOException
+	{
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(segmentSize, minimumSize));
+		segmentPosition = position;
+	}
+
+	/**
+	 * Returns the amount of bytes recorded so far, including the header
+	 * @return the amount of bytes recorded so far
+	 */
+	public synchronized long getSize()
+	{
+		return segmentPosition + segment.position();
+	}
+
+	/**
+	 * Flush the log and trim the file down to the recorded size, anything recorded after this is dropped
+	 */
+	@Override
+	public synchronized void close()
+	{
+		if(closed)
+			return;
+
+		closed = true;
+
+		try
+		{
+			long size = segmentPosition + segment.position();
+			segment.force();
+			channel.truncate(size);
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,362 @@
+package com.konloch.vortex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a log written by {@link TrafficRecorder} against a running server and measures the latency of every request.
+ * <p>
+ * Every recorded connection is replayed on its own thread. Each chunk that was read by the server is sent again at the
+ * time it was recorded, scaled by the speed, and is timed until as many bytes as were originally written back have arrived.
+ * A connection waits for each response before sending its next chunk, so a slower server delays the rest of that connection.
+ * <p>
+ * Run with: java com.konloch.vortex.TrafficReplay &lt;log&gt; &lt;host&gt; &lt;port&gt; [speed]
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TrafficReplay
+{
+	private final List<Connection> connections;
+	private double speed = 1;
+	private int timeout = 10_000;
+
+	/**
+	 * Load a traffic log to replay
+	 * @param log the log file
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	public TrafficReplay(Path log) throws IOException
+	{
+		Map<Long, Connection> connections = new LinkedHashMap<>();
+
+		try (TrafficLog reader = new TrafficLog(log))
+		{
+			TrafficLog.Record record;
+			while((record = reader.next()) != null)
+			{
+				Connection connection = connections.get(record.getUID());
+
+				if(connection == null)
+					connections.put(record.getUID(), connection = new Connection(record.getTimestamp()));
+
+				switch(record.getType())
+				{
+					case TrafficRecorder.READ:
+						connection.exchanges.add(new Exchange(record.getTimestamp(), record.getPayload()));
+						break;
+
+					case TrafficRecorder.WRITE:
+					case TrafficRecorder.WRITE_ELIDED:
+						if(connection.exchanges.isEmpty())
+							connection.greetingBytes += record.getLength();
+						else
+							connection.exchanges.get(connection.exchanges.size() - 1).responseBytes += record.getLength();
+						break;
+				}
+			}
+		}
+
+		this.connections = new ArrayList<>(connections.values());
+	}
+
+	/**
+	 * Returns the amount of recorded connections
+	 * @return the amount of recorded connections
+	 */
+	public int getConnections()
+	{
+		return connections.size();
+	}
+
+	/**
+	 * Returns the replay speed
+	 * @return the replay speed
+	 */
+	public double getSpeed()
+	{
+		return speed;
+	}
+
+	/**
+	 * Set the replay speed
+	 * @param speed 1 to replay at the original speed, 2 for twice as fast, or 0 to send every request as soon as the last one completes
+	 * @return this instance for method chaining
+	 */
+	public TrafficReplay setSpeed(double speed)
+	{
+		this.speed = speed;
+		return this;
+	}
+
+	/**
+	 * Returns the amount of milliseconds to wait on a connection or a response before it is counted as a failure
+	 * @return the timeout in milliseconds
+	 */
+	public int getTimeout()
+	{
+		return timeout;
+	}
+
+	/**
+	 * Set the amount of milliseconds to wait on a connection or a response before it is counted as a failure
+	 * @param timeout the timeout in milliseconds
+	 * @return this instance for method chaining
+	 */
+	public TrafficReplay setTimeout(int timeout)
+	{
+		this.timeout = timeout;
+		return this;
+	}
+
+	/**
+	 * Replay every recorded connection against a server and wait for them all to finish
+	 * @param address the address of the server
+	 * @return the measured latencies
+	 * @throws InterruptedException thrown if interrupted while waiting for the replay to finish
+	 */
+	public Result run(SocketAddress address) throws InterruptedException
+	{
+		List<long[]> latencies = new ArrayList<>();
+		AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[connections.size()];
+		long start = System.nanoTime();
+
+		for(int i = 0; i < threads.length; i++)
+		{
+			Connection connection = connections.get(i);
+			threads[i] = new Thread(() ->
+			{
+				long[] measured = new long[connection.exchanges.size()];
+				int count = 0;
+				int exchange = 0;
+
+				waitUntil(start, connection.openedAt);
+
+				try (Socket socket = new Socket())
+				{
+					socket.connect(address, timeout);
+					socket.setTcpNoDelay(true);
+					socket.setSoTimeout(timeout);
+					OutputStream out = socket.getOutputStream();
+					InputStream in = socket.getInputStream();
+
+					drain(in, connection.greetingBytes);
+
+					for(; exchange < connection.exchanges.size(); exchange++)
+					{
+						Exchange next = connection.exchanges.get(exchange);
+						waitUntil(start, next.at);
+
+						long sent = System.nanoTime();
+						out.write(next.request);
+
+						if(next.responseBytes > 0)
+						{
+							drain(in, next.responseBytes);
+							measured[count++] = System.nanoTime() - sent;
+						}
+					}
+				}
+				catch (IOException e)
+				{
+					//every exchange that did not complete is a failure
+					failures.addAndGet(Math.max(1, connection.exchanges.size() - exchange));
+				}
+
+				synchronized (latencies)
+				{
+					latencies.add(Arrays.copyOf(measured, count));
+				}
+			}, "Vortex Traffic Replay #" + i);
+			threads[i].start();
+		}
+
+		for(Thread thread : threads)
+			thread.join();
+
+		int total = 0;
+		for(long[] measured : latencies)
+			total += measured.length;
+
+		long[] all = new long[total];
+		int offset = 0;
+		for(long[] measured : latencies)
+		{
+			System.arraycopy(measured, 0, all, offset, measured.length);
+			offset += measured.length;
+		}
+		Arrays.sort(all);
+
+		return new Result(all, failures.get(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Wait until a recorded timestamp is due, scaled by the replay speed
+	 * @param start the System.nanoTime() the replay started at
+	 * @param timestamp the recorded amount of nanoseconds since recording started
+	 */
+	private void waitUntil(long start, long timestamp)
+	{
+		if(speed <= 0)
+			return;
+
+		long due = start + (long) (timestamp / speed);
+		long remaining;
+
+		while((remaining = due - System.nanoTime()) > 0)
+			LockSupport.parkNanos(remaining);
+	}
+
+	/**
+	 * Read and discard an exact amount of bytes
+	 * @param in the input stream
+	 * @param amount the amount of bytes to read
+	 * @throws IOException thrown if any IO issues are encountered or the stream ends early
+	 */
+	private static void drain(InputStream in, long amount) throws IOException
+	{
+		byte[] buffer = new byte[(int) Math.min(64 * 1024, Math.max(1, amount))];
+
+		while(amount > 0)
+		{
+			int read = in.read(buffer, 0, (int) Math.min(buffer.length, amount));
+
+			if(read < 0)
+				throw new IOException("Connection closed with " + amount + " bytes outstanding");
+
+			amount -= read;
+		}
+	}
+
+	/**
+	 * Replay a traffic log against a server
+	 * @param args the log file, host, port and an optional speed
+	 * @throws Exception thrown if the replay could not be run
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		if(args.length < 3)
+		{
+			System.out.println("Usage: java com.konloch.vortex.TrafficReplay <log> <host> <port> [speed]");
+			return;
+		}
+
+		TrafficReplay replay = new TrafficReplay(Paths.get(args[0]));
+
+		if(args.length > 3)
+			replay.setSpeed(Double.parseDouble(args[3]));
+
+		System.out.println("Replaying " + replay.getConnections() + " connections at " + replay.getSpeed() + "x");
+		System.out.println(replay.run(new InetSocketAddress(args[1], Integer.parseInt(args[2]))));
+	}
+
+	/**
+	 * The latencies measured by a replay
+	 */
+	public static class Result
+	{
+		private final long[] latencies;
+		private final int failures;
+		private final long duration;
+
+		Result(long[] latencies, int failures, long duration)
+		{
+			this.latencies = latencies;
+			this.failures = failures;
+			this.duration = duration;
+		}
+
+		/**
+		 * Returns the amount of requests that were timed
+		 * @return the amount of requests that were timed
+		 */
+		public int getRequests()
+		{
+			return latencies.length;
+		}
+
+		/**
+		 * Returns the amount of requests that failed or timed out
+		 * @return the amount of requests that failed or timed out
+		 */
+		public int getFailures()
+		{
+			return failures;
+		}
+
+		/**
+		 * Returns how long the replay took
+		 * @return how long the replay took in nanoseconds
+		 */
+		public long getDuration()
+		{
+			return duration;
+		}
+
+		/**
+		 * Returns the latency at a percentile
+		 * @param percentile any percentile between 0-100
+		 * @return the latency in nanoseconds, or 0 if no requests were timed
+		 */
+		public long getPercentile(double percentile)
+		{
+			if(latencies.length == 0)
+				return 0;
+
+			return latencies[(int) Math.min(latencies.length - 1, latencies.length * percentile / 100)];
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("requests=%d failures=%d duration=%.1fs p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+					latencies.length, failures, duration / 1e9, getPercentile(50) / 1_000, getPercentile(90) / 1_000,
+					getPercentile(99) / 1_000, getPercentile(99.9) / 1_000, getPercentile(100) / 1_000);
+		}
+	}
+
+	/**
+	 * A recorded connection
+	 */
+	private static class Connection
+	{
+		private final long openedAt;
+		private final List<Exchange> exchanges = new ArrayList<>();
+		private long greetingBytes;
+
+		private Connection(long openedAt)
+		{
+			this.openedAt = openedAt;
+		}
+	}
+
+	/**
+	 * A chunk read by the server and the amount of bytes it wrote back before the next chunk arrived
+	 */
+	private static class Exchange
+	{
+		private final long at;
+		private final byte[] request;
+		private long responseBytes;
+
+		private Exchange(long at, byte[] request)
+		{
+			this.at = at;
+			this.request = request;
+		}
+	}
+}
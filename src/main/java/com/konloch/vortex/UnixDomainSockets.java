@@ -0,0 +1,39 @@
+package com.konloch.vortex;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Unix domain socket support, this is the Java 8 version which reports them as unsupported.
+ * The multi-release jar replaces this class on Java 16 or higher.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class UnixDomainSockets
+{
+	private UnixDomainSockets()
+	{
+	}
+	
+	/**
+	 * Returns true if the running Java version supports unix domain sockets
+	 * @return true if the running Java version supports unix domain sockets
+	 */
+	static boolean isSupported()
+	{
+		return false;
+	}
+	
+	/**
+	 * Open and bind a unix domain socket server channel
+	 * @param path the socket file path
+	 * @return the bound server socket channel
+	 * @throws IOException always thrown, unix domain sockets are not supported on this Java version
+	 */
+	static ServerSocketChannel open(Path path) throws IOException
+	{
+		throw new IOException("Unix domain sockets require Java 16 or higher");
+	}
+}
@@ -0,0 +1,116 @@
+package com.konloch.vortex;
+
+import com.konloch.vortex.interfaces.StallHandler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the heartbeat of every IO thread and reports any thread stuck in a single pass or handler call.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+class Watchdog implements Runnable
+{
+	private final Server server;
+	private final IO[] threadPool;
+	
+	/**
+	 * Construct a new watchdog
+	 * @param server the server being watched
+	 * @param threadPool the IO threads being watched
+	 */
+	Watchdog(Server server, IO[] threadPool)
+	{
+		this.server = server;
+		this.threadPool = threadPool;
+	}
+	
+	@Override
+	public void run()
+	{
+		while (server.isRunning())
+		{
+			long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(server.getStallThreshold());
+			
+			for (IO io : threadPool)
+				if (io != null)
+					check(io, thresholdNanos);
+			
+			try
+			{
+				//check twice per threshold so a stall is reported at most half a threshold late
+				Thread.sleep(Math.max(1, server.getStallThreshold() / 2));
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Check the heartbeat of a single IO thread
+	 * @param io the IO thread
+	 * @param thresholdNanos the stall threshold in nanoseconds
+	 */
+	private void check(IO io, long thresholdNanos)
+	{
+		long now = System.nanoTime();
+		long handlerStart = io.getHandlerStart();
+		long passStart = io.getPassStart();
+		long clientUID = -1;
+		long stalledNanos = 0;
+		
+		if (handlerStart != 0 && now - handlerStart > thresholdNanos)
+		{
+			clientUID = io.getHandlerClientUID();
+			stalledNanos = now - handlerStart;
+		}
+		else if (passStart != 0 && now - passStart > thresholdNanos)
+		{
+			stalledNanos = now - passStart;
+		}
+		
+		if (stalledNanos == 0)
+		{
+			//the thread has recovered
+			io.setStalled(false);
+			return;
+		}
+		
+		//only report each stall once
+		if (io.isStalled())
+			return;
+		
+		io.setStalled(true);
+		
+		Thread thread = io.getThread();
+		StackTraceElement[] stackTrace = thread == null ? new StackTraceElement[0] : thread.getStackTrace();
+		long stalledMillis = TimeUnit.NANOSECONDS.toMillis(stalledNanos);
+		
+		StringBuilder message = new StringBuilder("Vortex IO thread " + io.getIndex() + " stalled for " + stalledMillis + "ms");
+		
+		if (clientUID != -1)
+			message.append(" in the request handler for client ").append(clientUID);
+		
+		for (StackTraceElement element : stackTrace)
+			message.append(System.lineSeparator()).append("\tat ").append(element);
+		
+		System.err.println(message);
+		
+		StallHandler stallHandler = server.getStallHandler();
+		
+		if (stallHandler != null)
+		{
+			try
+			{
+				stallHandler.stalled(io.getIndex(), clientUID, stalledMillis, stackTrace);
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+	}
+}
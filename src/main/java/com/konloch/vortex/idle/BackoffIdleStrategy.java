@@ -0,0 +1,79 @@
+package com.konloch.vortex.idle;
+
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins, then yields, then parks the thread with an exponentially growing period until work shows up again.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BackoffIdleStrategy implements IdleStrategy
+{
+	private final long maxSpins;
+	private final long maxYields;
+	private final long minParkPeriodNanos;
+	private final long maxParkPeriodNanos;
+	private long spins;
+	private long yields;
+	private long parkPeriodNanos;
+
+	/**
+	 * Construct a new backoff strategy with 10 spins, 5 yields, then parking between 1 microsecond and 1 millisecond
+	 */
+	public BackoffIdleStrategy()
+	{
+		this(10, 5, 1_000, 1_000_000);
+	}
+
+	/**
+	 * Construct a new backoff strategy
+	 * @param maxSpins the amount of idle passes to spin
+	 * @param maxYields the amount of idle passes to yield after spinning
+	 * @param minParkPeriodNanos the first park period in nanoseconds
+	 * @param maxParkPeriodNanos the park period will double until it reaches this amount of nanoseconds
+	 */
+	public BackoffIdleStrategy(long maxSpins, long maxYields, long minParkPeriodNanos, long maxParkPeriodNanos)
+	{
+		this.maxSpins = maxSpins;
+		this.maxYields = maxYields;
+		this.minParkPeriodNanos = minParkPeriodNanos;
+		this.maxParkPeriodNanos = maxParkPeriodNanos;
+		this.parkPeriodNanos = minParkPeriodNanos;
+	}
+
+	@Override
+	public void idle(int workCount)
+	{
+		if(workCount > 0)
+		{
+			reset();
+			return;
+		}
+
+		if(spins < maxSpins)
+		{
+			spins++;
+		}
+		else if(yields < maxYields)
+		{
+			yields++;
+			Thread.yield();
+		}
+		else
+		{
+			LockSupport.parkNanos(parkPeriodNanos);
+			parkPeriodNanos = Math.min(parkPeriodNanos << 1, maxParkPeriodNanos);
+		}
+	}
+
+	@Override
+	public void reset()
+	{
+		spins = 0;
+		yields = 0;
+		parkPeriodNanos = minParkPeriodNanos;
+	}
+}
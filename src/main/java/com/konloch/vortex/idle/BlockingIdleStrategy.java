@@ -0,0 +1,115 @@
+package com.konloch.vortex.idle;
+
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Blocks on a selector until one of the registered channels is ready, or until the max block time has passed.
+ *
+ * The max block time bounds how late timeouts and handler state machines are evaluated on a quiet thread.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BlockingIdleStrategy implements IdleStrategy
+{
+	private final long maxBlockMillis;
+	private volatile Selector selector;
+
+	/**
+	 * Construct a new blocking strategy that blocks for at most 100ms
+	 */
+	public BlockingIdleStrategy()
+	{
+		this(100);
+	}
+
+	/**
+	 * Construct a new blocking strategy
+	 * @param maxBlockMillis the maximum amount of milliseconds to block for
+	 */
+	public BlockingIdleStrategy(long maxBlockMillis)
+	{
+		this.maxBlockMillis = maxBlockMillis;
+	}
+
+	@Override
+	public void idle(int workCount)
+	{
+		if(workCount > 0)
+			return;
+
+		try
+		{
+			selector().select(maxBlockMillis);
+			selector.selectedKeys().clear();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void register(SelectableChannel channel, int ops) throws IOException
+	{
+		channel.register(selector(), ops);
+	}
+
+	@Override
+	public void deregister(SelectableChannel channel)
+	{
+		Selector selector = this.selector;
+
+		if(selector == null)
+			return;
+
+		//the selector is level-triggered, a channel at the end of its stream would wake every select straight away
+		SelectionKey key = channel.keyFor(selector);
+
+		if(key != null)
+			key.cancel();
+	}
+
+	@Override
+	public void wakeup()
+	{
+		Selector selector = this.selector;
+
+		if(selector != null)
+			selector.wakeup();
+	}
+
+	@Override
+	public void close()
+	{
+		if(selector == null)
+			return;
+
+		try
+		{
+			selector.close();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Lazily open the selector on the owning thread
+	 * @return the selector
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	private Selector selector() throws IOException
+	{
+		if(selector == null)
+			selector = Selector.open();
+
+		return selector;
+	}
+}
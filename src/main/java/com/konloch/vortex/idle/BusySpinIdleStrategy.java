@@ -0,0 +1,18 @@
+package com.konloch.vortex.idle;
+
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+/**
+ * Never gives up the CPU, this has the lowest latency and should only be used on isolated cores.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BusySpinIdleStrategy implements IdleStrategy
+{
+	@Override
+	public void idle(int workCount)
+	{
+		//intentionally empty - the thread immediately starts its next pass
+	}
+}
@@ -0,0 +1,69 @@
+package com.konloch.vortex.idle;
+
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+/**
+ * Sleeps for a fixed amount of milliseconds on every idle pass, this is the default strategy.
+ *
+ * By default an IO thread only sleeps while it has no clients, and keeps polling its clients for as long as it has any.
+ * This keeps the latency of connected clients low at the cost of a busy thread, sleeping between passes as well trades
+ * that latency for CPU.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class SleepingIdleStrategy implements IdleStrategy
+{
+	private final long sleepMillis;
+	private final boolean whileServing;
+
+	/**
+	 * Construct a new sleeping strategy that sleeps for 1ms, only while there are no clients
+	 */
+	public SleepingIdleStrategy()
+	{
+		this(1);
+	}
+
+	/**
+	 * Construct a new sleeping strategy that only sleeps while there are no clients
+	 * @param sleepMillis the amount of milliseconds to sleep on every idle pass
+	 */
+	public SleepingIdleStrategy(long sleepMillis)
+	{
+		this(sleepMillis, false);
+	}
+
+	/**
+	 * Construct a new sleeping strategy
+	 * @param sleepMillis the amount of milliseconds to sleep on every idle pass
+	 * @param whileServing true to also sleep after idle passes over connected clients
+	 */
+	public SleepingIdleStrategy(long sleepMillis, boolean whileServing)
+	{
+		this.sleepMillis = sleepMillis;
+		this.whileServing = whileServing;
+	}
+
+	@Override
+	public void idle(int workCount)
+	{
+		if(workCount > 0)
+			return;
+
+		try
+		{
+			Thread.sleep(sleepMillis);
+		}
+		catch (InterruptedException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public boolean isIdleWhileServing()
+	{
+		return whileServing;
+	}
+}
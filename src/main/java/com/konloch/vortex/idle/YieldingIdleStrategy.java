@@ -0,0 +1,53 @@
+package com.konloch.vortex.idle;
+
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+/**
+ * Spins for a set amount of idle passes, then yields the thread on every idle pass after that.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class YieldingIdleStrategy implements IdleStrategy
+{
+	private final int maxSpins;
+	private int spins;
+
+	/**
+	 * Construct a new spin-then-yield strategy with 100 spins
+	 */
+	public YieldingIdleStrategy()
+	{
+		this(100);
+	}
+
+	/**
+	 * Construct a new spin-then-yield strategy
+	 * @param maxSpins the amount of idle passes to spin before yielding
+	 */
+	public YieldingIdleStrategy(int maxSpins)
+	{
+		this.maxSpins = maxSpins;
+	}
+
+	@Override
+	public void idle(int workCount)
+	{
+		if(workCount > 0)
+		{
+			spins = 0;
+			return;
+		}
+
+		if(spins < maxSpins)
+			spins++;
+		else
+			Thread.yield();
+	}
+
+	@Override
+	public void reset()
+	{
+		spins = 0;
+	}
+}
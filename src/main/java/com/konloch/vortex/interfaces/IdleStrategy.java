@@ -0,0 +1,70 @@
+package com.konloch.vortex.interfaces;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * Decides what a server thread does when a pass over its work found nothing to do.
+ *
+ * Each acceptor and IO thread creates its own instance, so implementations may keep per-thread state.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public interface IdleStrategy
+{
+	/**
+	 * Called once per pass with the amount of work that pass performed
+	 * @param workCount zero if the pass was idle, otherwise any positive value
+	 */
+	void idle(int workCount);
+
+	/**
+	 * Returns true if an IO thread should idle after passes over its clients that found nothing to do. When false it
+	 * only idles while it has no clients at all, and keeps polling its clients for as long as it has any
+	 * @return true if idle passes with connected clients are handed to this strategy
+	 */
+	default boolean isIdleWhileServing()
+	{
+		return true;
+	}
+
+	/**
+	 * Reset any internal backoff state
+	 */
+	default void reset()
+	{
+	}
+
+	/**
+	 * Register a channel the thread is servicing, strategies that block on readiness use this to wake up
+	 * @param channel any non-blocking channel
+	 * @param ops the interest set, such as SelectionKey.OP_READ
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	default void register(SelectableChannel channel, int ops) throws IOException
+	{
+	}
+
+	/**
+	 * Stop watching a channel for readiness, such as once its remote end has hung up and it would otherwise stay ready
+	 * @param channel a previously registered channel
+	 */
+	default void deregister(SelectableChannel channel)
+	{
+	}
+
+	/**
+	 * Wake up the thread if it is currently idling, this is safe to call from any thread
+	 */
+	default void wakeup()
+	{
+	}
+
+	/**
+	 * Release any resources held by this strategy, called when the owning thread exits
+	 */
+	default void close()
+	{
+	}
+}
@@ -0,0 +1,27 @@
+package com.konloch.vortex.interfaces;
+
+/**
+ * Decides if the first bytes of a new connection belong to a protocol
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public interface ProtocolMatcher
+{
+	/**
+	 * Inspect the first bytes received on a connection
+	 * @param head every byte received so far
+	 * @return MATCH if the bytes belong to this protocol, NO_MATCH if they do not, or NEED_MORE if it is too early to tell
+	 */
+	Result match(byte[] head);
+
+	/**
+	 * The outcome of inspecting the first bytes of a connection
+	 */
+	enum Result
+	{
+		MATCH,
+		NO_MATCH,
+		NEED_MORE
+	}
+}
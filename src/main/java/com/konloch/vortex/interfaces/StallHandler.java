@@ -0,0 +1,17 @@
+package com.konloch.vortex.interfaces;
+
+/**
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public interface StallHandler
+{
+	/**
+	 * Called by the watchdog when an IO thread has been stuck in a single pass or handler call past the stall threshold
+	 * @param ioThread the index of the stalled IO thread
+	 * @param clientUID the unique user id of the client whose handler is running, or -1 if the thread is not inside a handler
+	 * @param stalledMillis the amount of milliseconds the thread has been stalled for
+	 * @param stackTrace the stack trace of the stalled thread at the time it was detected
+	 */
+	void stalled(int ioThread, long clientUID, long stalledMillis, StackTraceElement[] stackTrace);
+}
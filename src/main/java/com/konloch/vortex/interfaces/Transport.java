@@ -0,0 +1,49 @@
+package com.konloch.vortex.interfaces;
+
+import java.net.InetAddress;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * The connection a client reads from and writes to, the IO threads only ever use it in non-blocking mode.
+ * <p>
+ * Reads return -1 once the remote end has closed its side, and both reads and writes may return zero when there
+ * is nothing to read or no room to write.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public interface Transport extends ByteChannel, ScatteringByteChannel, GatheringByteChannel
+{
+	/**
+	 * Returns true if the transport is open and connected
+	 * @return true if the transport is open and connected
+	 */
+	boolean isConnected();
+
+	/**
+	 * Returns the remote address in a readable form
+	 * @return the remote address, or an empty string if it is unknown
+	 */
+	String getRemoteAddress();
+
+	/**
+	 * Returns the remote inet address, this is used for the per-address connection limit
+	 * @return the remote inet address, or null if the transport is not inet based
+	 */
+	default InetAddress getRemoteInetAddress()
+	{
+		return null;
+	}
+
+	/**
+	 * Returns the selectable channel behind this transport, idle strategies that block on readiness register it
+	 * @return the selectable channel, or null if the transport is not selectable
+	 */
+	default SelectableChannel getSelectableChannel()
+	{
+		return null;
+	}
+}
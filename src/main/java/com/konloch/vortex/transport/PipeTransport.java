@@ -0,0 +1,285 @@
+package com.konloch.vortex.transport;
+
+import com.konloch.vortex.interfaces.Transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory, non-blocking transport that connects two ends within the same JVM, without any sockets or kernel calls.
+ * <p>
+ * Construct one end, hand it to {@link com.konloch.vortex.Server#accept(Transport)} and drive the other end returned
+ * by {@link #getPeer()}. Each direction can be limited to a bandwidth and can hold bytes back for a fixed latency
+ * before they become readable. Pipes never wake an idling IO thread, so they are best paired with a spinning or
+ * backoff idle strategy.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class PipeTransport implements Transport
+{
+	private static final AtomicLong PIPE_IDS = new AtomicLong();
+
+	private final long id;
+	private final Pipe inbound;
+	private final Pipe outbound;
+	private final PipeTransport peer;
+	private volatile boolean open = true;
+
+	/**
+	 * Construct a new pipe with no bandwidth limit, no latency and 64KB of buffering in each direction
+	 */
+	public PipeTransport()
+	{
+		this(0, 0, 64 * 1024);
+	}
+
+	/**
+	 * Construct a new pipe
+	 * @param bandwidth the amount of bytes per second each direction can carry, or zero for no limit
+	 * @param latencyNanos the amount of nanoseconds written bytes are held back before they become readable
+	 * @param capacity the amount of bytes each direction can buffer before writes return zero
+	 */
+	public PipeTransport(long bandwidth, long latencyNanos, int capacity)
+	{
+		this.id = PIPE_IDS.incrementAndGet();
+		this.inbound = new Pipe(bandwidth, latencyNanos, capacity);
+		this.outbound = new Pipe(bandwidth, latencyNanos, capacity);
+		this.peer = new PipeTransport(this);
+	}
+
+	/**
+	 * Construct the other end of a pipe
+	 * @param peer the end that was constructed first
+	 */
+	private PipeTransport(PipeTransport peer)
+	{
+		this.id = peer.id;
+		this.inbound = peer.outbound;
+		this.outbound = peer.inbound;
+		this.peer = peer;
+	}
+
+	/**
+	 * Returns the other end of this pipe
+	 * @return the other end of this pipe
+	 */
+	public PipeTransport getPeer()
+	{
+		return peer;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException
+	{
+		ensureOpen();
+		return inbound.read(dst);
+	}
+
+	@Override
+	public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+	{
+		long total = 0;
+
+		for(int i = offset; i < offset + length; i++)
+		{
+			if(!dsts[i].hasRemaining())
+				continue;
+
+			int read = read(dsts[i]);
+
+			if(read < 0)
+				return total == 0 ? -1 : total;
+
+			total += read;
+
+			if(dsts[i].hasRemaining())
+				break;
+		}
+
+		return total;
+	}
+
+	@Override
+	public long read(ByteBuffer[] dsts) throws IOException
+	{
+		return read(dsts, 0, dsts.length);
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException
+	{
+		ensureOpen();
+		return outbound.write(src);
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs, int offset, int length) throws IOException
+	{
+		long total = 0;
+
+		for(int i = offset; i < offset + length; i++)
+		{
+			total += write(srcs[i]);
+
+			if(srcs[i].hasRemaining())
+				break;
+		}
+
+		return total;
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs) throws IOException
+	{
+		return write(srcs, 0, srcs.length);
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return open;
+	}
+
+	@Override
+	public boolean isConnected()
+	{
+		return open;
+	}
+
+	/**
+	 * Close this end, the other end reads what is left and then reaches the end of the stream
+	 */
+	@Override
+	public void close()
+	{
+		if(!open)
+			return;
+
+		open = false;
+		outbound.closeWriter();
+		inbound.closeReader();
+	}
+
+	@Override
+	public String getRemoteAddress()
+	{
+		return "pipe:" + id;
+	}
+
+	/**
+	 * Throw if this end has been closed
+	 * @throws ClosedChannelException thrown if this end has been closed
+	 */
+	private void ensureOpen() throws ClosedChannelException
+	{
+		if(!open)
+			throw new ClosedChannelException();
+	}
+
+	/**
+	 * A single direction of a pipe
+	 */
+	private static class Pipe
+	{
+		private final long bandwidth;
+		private final long latency;
+		private final int capacity;
+		private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+		private int buffered;
+		private double tokens;
+		private long lastRefill = System.nanoTime();
+		private boolean writerClosed;
+		private boolean readerClosed;
+
+		private Pipe(long bandwidth, long latency, int capacity)
+		{
+			this.bandwidth = bandwidth;
+			this.latency = latency;
+			this.capacity = capacity;
+			this.tokens = capacity;
+		}
+
+		private synchronized int write(ByteBuffer src) throws IOException
+		{
+			if(readerClosed)
+				throw new IOException("Broken pipe");
+
+			int length = Math.min(src.remaining(), capacity - buffered);
+			long now = bandwidth > 0 || latency > 0 ? System.nanoTime() : 0;
+
+			if(bandwidth > 0)
+			{
+				//refill the token bucket, at most a full buffer's worth can be sent in one burst
+				tokens = Math.min(capacity, tokens + (now - lastRefill) * bandwidth / 1e9);
+				lastRefill = now;
+				length = (int) Math.min(length, (long) tokens);
+				tokens -= length;
+			}
+
+			if(length <= 0)
+				return 0;
+
+			byte[] data = new byte[length];
+			src.get(data);
+			chunks.add(new Chunk(data, now + latency));
+			buffered += length;
+			return length;
+		}
+
+		private synchronized int read(ByteBuffer dst)
+		{
+			if(chunks.isEmpty())
+				return writerClosed ? -1 : 0;
+
+			long now = latency > 0 ? System.nanoTime() : Long.MAX_VALUE;
+			int total = 0;
+			Chunk chunk;
+
+			while(dst.hasRemaining() && (chunk = chunks.peek()) != null && chunk.readyAt <= now)
+			{
+				int length = Math.min(dst.remaining(), chunk.data.length - chunk.offset);
+				dst.put(chunk.data, chunk.offset, length);
+				chunk.offset += length;
+				total += length;
+
+				if(chunk.offset == chunk.data.length)
+					chunks.poll();
+			}
+
+			buffered -= total;
+			return total;
+		}
+
+		private synchronized void closeWriter()
+		{
+			writerClosed = true;
+		}
+
+		private synchronized void closeReader()
+		{
+			readerClosed = true;
+			chunks.clear();
+			buffered = 0;
+		}
+	}
+
+	/**
+	 * Bytes written in a single call and when they become readable
+	 */
+	private static class Chunk
+	{
+		private final byte[] data;
+		private final long readyAt;
+		private int offset;
+
+		private Chunk(byte[] data, long readyAt)
+		{
+			this.data = data;
+			this.readyAt = readyAt;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.konloch.vortex.transport;
+
+import com.konloch.vortex.interfaces.Transport;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A transport backed by a socket channel, this is used for every connection accepted from a listening socket
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class SocketTransport implements Transport
+{
+	private final SocketChannel channel;
+
+	/**
+	 * Construct a new socket transport
+	 * @param channel any connected, non-blocking socket channel
+	 */
+	public SocketTransport(SocketChannel channel)
+	{
+		this.channel = channel;
+	}
+
+	/**
+	 * Returns the socket channel behind this transport
+	 * @return the socket channel behind this transport
+	 */
+	public SocketChannel getChannel()
+	{
+		return channel;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException
+	{
+		return channel.read(dst);
+	}
+
+	@Override
+	public long read(ByteBuffer[] dsts, int offset, int length) throws IOException
+	{
+		return channel.read(dsts, offset, length);
+	}
+
+	@Override
+	public long read(ByteBuffer[] dsts) throws IOException
+	{
+		return channel.read(dsts);
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException
+	{
+		return channel.write(src);
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs, int offset, int length) throws IOException
+	{
+		return channel.write(srcs, offset, length);
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs) throws IOException
+	{
+		return channel.write(srcs);
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return channel.isOpen();
+	}
+
+	@Override
+	public boolean isConnected()
+	{
+		return channel.isConnected();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	@Override
+	public SelectableChannel getSelectableChannel()
+	{
+		return channel;
+	}
+
+	@Override
+	public InetAddress getRemoteInetAddress()
+	{
+		try
+		{
+			SocketAddress address = channel.getRemoteAddress();
+			return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getAddress() : null;
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	@Override
+	public String getRemoteAddress()
+	{
+		Socket javaSocket;
+
+		try
+		{
+			javaSocket = channel.socket();
+		}
+		catch (UnsupportedOperationException e)
+		{
+			//non-inet channels such as unix domain sockets have no java.net.Socket adaptor
+			return resolveNonInetAddress();
+		}
+
+		if(javaSocket == null)
+			return ""; //return empty instead of null
+
+		return javaSocket.toString().replace("/","");
+	}
+
+	/**
+	 * Resolve the address of a non-inet socket, unix domain socket peers are unnamed so the local path is used
+	 * @return the address, or an empty string if that failed
+	 */
+	private String resolveNonInetAddress()
+	{
+		try
+		{
+			SocketAddress address = channel.getRemoteAddress();
+
+			if(address == null || address.toString().isEmpty())
+				address = channel.getLocalAddress();
+
+			return address == null ? "" : "unix:" + address;
+		}
+		catch (IOException e)
+		{
+			return ""; //return empty instead of null
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.konloch.vortex;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events, this is the Java 11 version loaded from the multi-release jar.
+ * <p>
+ * Events cost a disabled check when no recording is running. The thresholds keep the hot-path events
+ * down to the slow outliers, so they can stay enabled in production. Override them in a .jfc file as needed.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class FlightRecorderEvents
+{
+	private FlightRecorderEvents()
+	{
+	}
+	
+	/**
+	 * The shared event category
+	 */
+	@Category("Vortex IO")
+	@StackTrace(false)
+	abstract static class VortexEvent extends Event
+	{
+	}
+	
+	@Name("com.konloch.vortex.Accept")
+	@Label("Connection Accepted")
+	@Description("A connection was accepted or rejected by the acceptor")
+	static final class Accept extends VortexEvent
+	{
+		@Label("Client UID")
+		long uid;
+		
+		@Label("Remote Address")
+		String remoteAddress;
+		
+		@Label("IO Thread")
+		@Description("The IO thread the connection was assigned to, -1 if it was rejected")
+		int ioThread;
+		
+		@Label("Accepted")
+		boolean accepted;
+	}
+	
+	@Name("com.konloch.vortex.SocketRead")
+	@Label("Socket Read")
+	@Description("A socket read that returned data")
+	@Threshold("1 ms")
+	static final class SocketRead extends VortexEvent
+	{
+		@Label("Client UID")
+		long uid;
+		
+		@Label("IO Thread")
+		int ioThread;
+		
+		@Label("Bytes")
+		@DataAmount
+		long bytes;
+	}
+	
+	@Name("com.konloch.vortex.SocketWrite")
+	@Label("Socket Write")
+	@Description("A socket write or spill transfer")
+	@Threshold("1 ms")
+	static final class SocketWrite extends VortexEvent
+	{
+		@Label("Client UID")
+		long uid;
+		
+		@Label("IO Thread")
+		int ioThread;
+		
+		@Label("Bytes")
+		@DataAmount
+		long bytes;
+	}
+	
+	@Name("com.konloch.vortex.Handler")
+	@Label("Request Handler")
+	@Description("A single request handler invocation")
+	@Threshold("5 ms")
+	static final class Handler extends VortexEvent
+	{
+		@Label("Client UID")
+		long uid;
+		
+		@Label("IO Thread")
+		int ioThread;
+	}
+	
+	@Name("com.konloch.vortex.LoopIteration")
+	@Label("IO Loop Iteration")
+	@Description("A single pass of an IO thread over all of its clients")
+	@Threshold("10 ms")
+	static final class LoopIteration extends VortexEvent
+	{
+		@Label("IO Thread")
+		int ioThread;
+		
+		@Label("Clients")
+		int clients;
+		
+		@Label("Work Count")
+		int workCount;
+	}
+	
+	@Name("com.konloch.vortex.Timeout")
+	@Label("Connection Timeout")
+	@Description("A client was disconnected for network inactivity")
+	static final class Timeout extends VortexEvent
+	{
+		@Label("Client UID")
+		long uid;
+		
+		@Label("Remote Address")
+		String remoteAddress;
+		
+		@Label("IO Thread")
+		int ioThread;
+	}
+}
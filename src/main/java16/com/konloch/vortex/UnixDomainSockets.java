@@ -0,0 +1,60 @@
+package com.konloch.vortex;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Unix domain socket support, this is the Java 16 version loaded from the multi-release jar.
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class UnixDomainSockets
+{
+	private UnixDomainSockets()
+	{
+	}
+	
+	/**
+	 * Returns true if the running Java version supports unix domain sockets
+	 * @return true if the running Java version supports unix domain sockets
+	 */
+	static boolean isSupported()
+	{
+		return true;
+	}
+	
+	/**
+	 * Open and bind a unix domain socket server channel, a stale socket file left behind at the path is removed first
+	 * @param path the socket file path
+	 * @return the bound server socket channel
+	 * @throws IOException thrown if any IO issues are encountered.
+	 */
+	static ServerSocketChannel open(Path path) throws IOException
+	{
+		//only remove sockets, never regular files or directories
+		if(Files.exists(path, LinkOption.NOFOLLOW_LINKS)
+				&& Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther())
+			Files.delete(path);
+		
+		ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		
+		try
+		{
+			channel.bind(UnixDomainSocketAddress.of(path));
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+		
+		return channel;
+	}
+}
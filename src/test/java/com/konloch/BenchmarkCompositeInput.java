@@ -0,0 +1,248 @@
+package com.konloch;
+
+import com.konloch.vortex.Client;
+import com.konloch.vortex.InputBuffer;
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the ByteArrayOutputStream input buffer against the composite input buffer, with large uploads and with
+ * small pipelined messages, run with: java com.konloch.BenchmarkCompositeInput
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkCompositeInput
+{
+	//change this value to adjust the amount of connections
+	private static final int CONNECTIONS = 8;
+
+	//change this value to adjust the size of every upload
+	private static final int UPLOAD_SIZE = 1024 * 1024;
+
+	//change this value to adjust the size of every small message, including the newline
+	private static final int MESSAGE_SIZE = 32;
+
+	//change this value to adjust the amount of small messages each connection sends before waiting on the responses
+	private static final int MESSAGE_BATCH = 64;
+
+	//change this value to adjust how long each mode runs for
+	private static final int DURATION_MS = 5_000;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-10s %-10s %14s %10s %10s", "workload", "input", "per second", "GCs", "GC ms"));
+
+		benchmark("uploads", "stream", false, true, 1900);
+		benchmark("uploads", "composite", true, true, 1901);
+		benchmark("messages", "stream", false, false, 1902);
+		benchmark("messages", "composite", true, false, 1903);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String workload, String name, boolean composite, boolean uploads, int port) throws Exception
+	{
+		Server server = new Server(port, 2, null, client ->
+		{
+			if(uploads)
+				upload(client);
+			else
+				messages(client);
+		}, null);
+		server.setCompositeInput(composite).setIOAmount(64 * 1024).setIOIdleStrategy(BackoffIdleStrategy::new).bind().start();
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong completed = new AtomicLong();
+		Thread[] threads = new Thread[CONNECTIONS];
+
+		for(int i = 0; i < threads.length; i++)
+		{
+			threads[i] = new Thread(() ->
+			{
+				try (Socket socket = new Socket("localhost", port))
+				{
+					socket.setTcpNoDelay(true);
+
+					if(uploads)
+						uploadClient(socket, running, completed);
+					else
+						messageClient(socket, running, completed);
+				}
+				catch (Exception e)
+				{
+					if(running.get())
+						e.printStackTrace();
+				}
+			});
+			threads[i].start();
+		}
+
+		long gcCount = gcCount();
+		long gcTime = gcTime();
+
+		Thread.sleep(DURATION_MS);
+		running.set(false);
+
+		for(Thread thread : threads)
+			thread.join();
+
+		server.stopSocketServer();
+
+		double perSecond = completed.get() * 1000D / DURATION_MS;
+		String rate = uploads ? String.format("%.1f MB", perSecond * UPLOAD_SIZE / (1024 * 1024)) : String.format("%.0f msg", perSecond);
+
+		System.out.println(String.format("%-10s %-10s %14s %10d %10d", workload, name, rate, gcCount() - gcCount, gcTime() - gcTime));
+	}
+
+	private static void uploadClient(Socket socket, AtomicBoolean running, AtomicLong completed) throws Exception
+	{
+		DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+		DataInputStream in = new DataInputStream(socket.getInputStream());
+		byte[] body = new byte[UPLOAD_SIZE];
+		Arrays.fill(body, (byte) 7);
+
+		while(running.get())
+		{
+			out.writeInt(body.length);
+			out.write(body);
+			out.flush();
+			in.readByte();
+			completed.incrementAndGet();
+		}
+	}
+
+	private static void messageClient(Socket socket, AtomicBoolean running, AtomicLong completed) throws Exception
+	{
+		OutputStream out = socket.getOutputStream();
+		DataInputStream in = new DataInputStream(socket.getInputStream());
+		byte[] batch = new byte[MESSAGE_SIZE * MESSAGE_BATCH];
+		byte[] responses = new byte[MESSAGE_BATCH];
+		Arrays.fill(batch, (byte) 'a');
+
+		for(int i = MESSAGE_SIZE - 1; i < batch.length; i += MESSAGE_SIZE)
+			batch[i] = '\n';
+
+		while(running.get())
+		{
+			out.write(batch);
+			in.readFully(responses);
+			completed.addAndGet(MESSAGE_BATCH);
+		}
+	}
+
+	/**
+	 * Answers every length-prefixed upload with a single byte once it has fully arrived
+	 */
+	private static void upload(Client client)
+	{
+		InputBuffer input = client.getInput();
+		long sum = 0;
+
+		if(input != null)
+		{
+			if(input.size() < 4)
+				return;
+
+			int length = input.view(0, 4).getInt();
+
+			if(input.size() < 4 + length)
+				return;
+
+			//touch every byte through the views, without copying the upload out of the chunks
+			int remaining = length + 4;
+			for(ByteBuffer view : input.views())
+				while(view.hasRemaining() && remaining-- > 0)
+					sum += view.get();
+
+			input.consume(4 + length);
+		}
+		else
+		{
+			if(client.getInputBuffer().size() < 4 + UPLOAD_SIZE)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+
+			for(byte b : bytes)
+				sum += b;
+		}
+
+		client.write(new byte[]{(byte) sum});
+	}
+
+	/**
+	 * Answers every newline terminated message with a single byte
+	 */
+	private static void messages(Client client)
+	{
+		InputBuffer input = client.getInput();
+		int answered = 0;
+
+		if(input != null)
+		{
+			int end = 0;
+			int newline;
+
+			while((newline = input.indexOf((byte) '\n', end)) >= 0)
+			{
+				end = newline + 1;
+				answered++;
+			}
+
+			input.consume(end);
+		}
+		else
+		{
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			int end = 0;
+
+			for(int i = 0; i < bytes.length; i++)
+			{
+				if(bytes[i] == '\n')
+				{
+					end = i + 1;
+					answered++;
+				}
+			}
+
+			client.getInputBuffer().reset();
+			client.getInputBuffer().write(bytes, end, bytes.length - end);
+		}
+
+		if(answered > 0)
+			client.write(new byte[answered]);
+	}
+
+	private static long gcCount()
+	{
+		long count = 0;
+
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			count += gc.getCollectionCount();
+
+		return count;
+	}
+
+	private static long gcTime()
+	{
+		long time = 0;
+
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			time += gc.getCollectionTime();
+
+		return time;
+	}
+}
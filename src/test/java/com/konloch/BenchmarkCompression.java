@@ -0,0 +1,131 @@
+package com.konloch;
+
+import com.konloch.vortex.Compression;
+import com.konloch.vortex.Server;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Inflater;
+
+/**
+ * Compares bytes on the wire and CPU cost of the compression stage at several levels,
+ * run with: java com.konloch.BenchmarkCompression
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkCompression
+{
+	//change this value to adjust the amount of requests per run
+	private static final int REQUESTS = 20_000;
+
+	private static final String DICTIONARY = "{\"id\":\"\",\"user\":{\"name\":\"\",\"email\":\"@example.com\",\"roles\":[\"reader\",\"writer\"]},"
+			+ "\"status\":\"active\",\"created\":\"2026-10-19T00:00:00Z\",\"tags\":[\"alpha\",\"beta\",\"gamma\"],\"score\":}";
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-14s %14s %12s %16s", "mode", "wire bytes/req", "ratio", "CPU us/req"));
+
+		byte[] dictionary = DICTIONARY.getBytes(StandardCharsets.UTF_8);
+		benchmark("uncompressed", null, 1400);
+		benchmark("level 1", new Compression(1, null, 64), 1401);
+		benchmark("level 6", new Compression(6, null, 64), 1402);
+		benchmark("level 9", new Compression(9, null, 64), 1403);
+		benchmark("level 6 + dict", new Compression(6, dictionary, 64), 1404);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, Compression compression, int port) throws Exception
+	{
+		Server server = new Server(port, 1, null, client ->
+		{
+			int requests = client.getInputBuffer().size();
+
+			if(requests == 0)
+				return;
+
+			client.getInputBuffer().reset();
+
+			for(int i = 0; i < requests; i++)
+			{
+				client.setState(client.getState() + 1);
+				client.write(json(client.getState()));
+			}
+		}, null);
+		server.setCompression(compression).bind().start();
+
+		int jsonSize = json(0).length;
+		Inflater inflater = new Inflater();
+		byte[] inflated = new byte[jsonSize * 2];
+		long wireBytes = 0;
+
+		try (Socket socket = new Socket("localhost", port))
+		{
+			socket.setTcpNoDelay(true);
+			OutputStream out = socket.getOutputStream();
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+
+			//a single byte request, framed as a raw frame when compression is enabled
+			byte[] request = compression == null ? new byte[]{1} : new byte[]{0, 0, 0, 0, 1, 1};
+			byte[] payload = new byte[jsonSize * 2];
+
+			long cpuStart = processCpuTime();
+			for(int i = 0; i < REQUESTS; i++)
+			{
+				out.write(request);
+
+				if(compression == null)
+				{
+					in.readFully(payload, 0, jsonSize);
+					wireBytes += jsonSize;
+					continue;
+				}
+
+				int type = in.readByte();
+				int length = in.readInt();
+				in.readFully(payload, 0, length);
+				wireBytes += 5 + length;
+
+				if(type == 1)
+				{
+					inflater.setInput(payload, 0, length);
+					int size = inflater.inflate(inflated);
+
+					if(size == 0 && inflater.needsDictionary())
+					{
+						inflater.setDictionary(compression.getDictionary());
+						size = inflater.inflate(inflated);
+					}
+
+					if(size != jsonSize)
+						throw new IllegalStateException("Expected " + jsonSize + " bytes, inflated " + size);
+				}
+			}
+			long cpu = processCpuTime() - cpuStart;
+
+			System.out.println(String.format("%-14s %14.1f %12.2f %16.1f", name, wireBytes / (double) REQUESTS,
+					jsonSize * (double) REQUESTS / wireBytes, cpu / 1_000D / REQUESTS));
+		}
+		finally
+		{
+			inflater.end();
+			server.stopSocketServer();
+		}
+	}
+
+	private static byte[] json(int id)
+	{
+		return String.format("{\"id\":\"%08d\",\"user\":{\"name\":\"user%08d\",\"email\":\"user%08d@example.com\",\"roles\":[\"reader\",\"writer\"]},"
+				+ "\"status\":\"active\",\"created\":\"2026-10-19T00:00:00Z\",\"tags\":[\"alpha\",\"beta\",\"gamma\"],\"score\":%08d}",
+				id, id, id, id * 7).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static long processCpuTime()
+	{
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+	}
+}
@@ -0,0 +1,126 @@
+package com.konloch;
+
+import com.konloch.vortex.AttachmentKey;
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accept/close churn with and without client pooling, run with: java com.konloch.BenchmarkConnectionChurn
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkConnectionChurn
+{
+	//change this value to increase the amount of concurrent connecting threads
+	private static final int CLIENT_THREADS = 8;
+
+	//change this value to adjust how long each mode runs for
+	private static final int DURATION_MS = 10_000;
+
+	//per-connection state kept as an attachment instead of a map keyed by the client uid
+	private static final AttachmentKey<long[]> REQUESTS = new AttachmentKey<>("requests", requests -> requests[0] = 0);
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-10s %14s %16s %10s", "mode", "connections/s", "allocated B/conn", "GC count"));
+
+		benchmark("default", false, 1600);
+		benchmark("pooled", true, 1601);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, boolean pooling, int port) throws Exception
+	{
+		Server server = new Server(port, 1, null, client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			long[] requests = client.getAttachment(REQUESTS);
+
+			if(requests == null)
+				client.setAttachment(REQUESTS, requests = new long[1]);
+
+			requests[0]++;
+			client.getInputBuffer().reset();
+			client.write(new byte[]{1});
+		}, null);
+		server.setClientPooling(pooling).setCloseOnEndOfStream(true)
+				.setAcceptorIdleStrategy(BackoffIdleStrategy::new).setIOIdleStrategy(BackoffIdleStrategy::new)
+				.bind().start();
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong connections = new AtomicLong();
+		Thread[] threads = new Thread[CLIENT_THREADS];
+		for(int i = 0; i < threads.length; i++)
+		{
+			threads[i] = new Thread(() ->
+			{
+				while(running.get())
+				{
+					try (Socket socket = new Socket("localhost", port))
+					{
+						//reset on close so the client side does not run out of ports to TIME_WAIT
+						socket.setSoLinger(true, 0);
+						socket.getOutputStream().write(1);
+
+						if(socket.getInputStream().read() >= 0)
+							connections.incrementAndGet();
+					}
+					catch (Exception e)
+					{
+						//ignore and reconnect
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		long allocatedStart = allocatedBytes();
+		long gcStart = gcCount();
+		long connectionsStart = connections.get();
+		Thread.sleep(DURATION_MS);
+		long accepted = connections.get() - connectionsStart;
+		long allocated = allocatedBytes() - allocatedStart;
+		long gc = gcCount() - gcStart;
+
+		running.set(false);
+		for(Thread thread : threads)
+			thread.join();
+
+		System.out.println(String.format("%-10s %14.0f %16.0f %10d", name, accepted * 1000D / DURATION_MS,
+				allocated / (double) Math.max(1, accepted), gc));
+
+		server.stopSocketServer();
+	}
+
+	private static long allocatedBytes()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long total = 0;
+
+		for(long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+			if(allocated > 0)
+				total += allocated;
+
+		return total;
+	}
+
+	private static long gcCount()
+	{
+		long total = 0;
+
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			total += gc.getCollectionCount();
+
+		return total;
+	}
+}
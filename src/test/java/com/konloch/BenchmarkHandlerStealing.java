@@ -0,0 +1,202 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+import com.konloch.vortex.idle.BlockingIdleStrategy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares throughput and p99 latency with and without handler stealing under a skewed load, where every CPU-heavy
+ * client lands on the same IO thread, then the CPU cost of idle connections with a blocking idle strategy,
+ * run with: java com.konloch.BenchmarkHandlerStealing
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkHandlerStealing
+{
+	//change this value to adjust the amount of IO threads
+	private static final int IO_THREADS = 4;
+
+	//change this value to adjust the amount of connections, each one keeps a single request in-flight
+	private static final int CONNECTIONS = 32;
+
+	//change this value to adjust the CPU time the handler spends on requests from heavy clients
+	private static final long HEAVY_HANDLER_NANOS = 200_000;
+
+	//change this value to adjust how long each mode runs for
+	private static final int DURATION_MS = 5_000;
+
+	//change this value to adjust the amount of connections left idle while the CPU cost is sampled
+	private static final int IDLE_CONNECTIONS = 4;
+
+	//change this value to adjust how long the CPU cost is sampled while the connections are idle
+	private static final int IDLE_SAMPLE_MS = 2_000;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-10s %10s %10s %10s", "mode", "req/s", "p50 us", "p99 us"));
+
+		benchmark("pinned", false, 1800);
+		benchmark("stealing", true, 1801);
+
+		System.out.println();
+		System.out.println(String.format("%-10s %10s", "mode", "idle CPU %"));
+
+		idle("pinned", false, 1802);
+		idle("stealing", true, 1803);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, boolean stealing, int port) throws Exception
+	{
+		Server server = new Server(port, IO_THREADS, null, client ->
+		{
+			int requests = client.getInputBuffer().size();
+
+			if(requests == 0)
+				return;
+
+			client.getInputBuffer().reset();
+
+			//clients are assigned round-robin, so every heavy client is owned by the first IO thread
+			boolean heavy = client.getUID() % IO_THREADS == 0;
+
+			for(int i = 0; i < requests; i++)
+			{
+				if(heavy)
+				{
+					long end = System.nanoTime() + HEAVY_HANDLER_NANOS;
+					while(System.nanoTime() < end)
+					{
+						//spin
+					}
+				}
+
+				client.write(new byte[]{1});
+			}
+		}, null);
+		server.setHandlerStealing(stealing).setIOIdleStrategy(BackoffIdleStrategy::new).bind().start();
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+		Thread[] threads = new Thread[CONNECTIONS];
+
+		//connect one at a time so the uids line up with the round-robin assignment
+		Socket[] sockets = new Socket[CONNECTIONS];
+		for(int i = 0; i < sockets.length; i++)
+		{
+			sockets[i] = new Socket("localhost", port);
+			sockets[i].setTcpNoDelay(true);
+		}
+
+		for(int i = 0; i < threads.length; i++)
+		{
+			Socket socket = sockets[i];
+			threads[i] = new Thread(() ->
+			{
+				long[] recorded = new long[DURATION_MS * 100];
+				int count = 0;
+
+				try
+				{
+					OutputStream out = socket.getOutputStream();
+					InputStream in = socket.getInputStream();
+
+					while(running.get())
+					{
+						long start = System.nanoTime();
+						out.write(1);
+
+						if(in.read() < 0)
+							break;
+
+						if(count < recorded.length)
+							recorded[count++] = System.nanoTime() - start;
+					}
+
+					socket.close();
+				}
+				catch (Exception e)
+				{
+					e.printStackTrace();
+				}
+
+				latencies.add(Arrays.copyOf(recorded, count));
+			});
+			threads[i].start();
+		}
+
+		Thread.sleep(DURATION_MS);
+		running.set(false);
+
+		for(Thread thread : threads)
+			thread.join();
+
+		server.stopSocketServer();
+
+		int total = 0;
+		for(long[] recorded : latencies)
+			total += recorded.length;
+
+		long[] all = new long[total];
+		int offset = 0;
+		for(long[] recorded : latencies)
+		{
+			System.arraycopy(recorded, 0, all, offset, recorded.length);
+			offset += recorded.length;
+		}
+		Arrays.sort(all);
+
+		System.out.println(String.format("%-10s %10.0f %10d %10d", name, total * 1000D / DURATION_MS,
+				Latency.percentile(all, 50) / 1_000, Latency.percentile(all, 99) / 1_000));
+	}
+
+	/**
+	 * Sample the CPU cost of connections that never send anything, every IO thread should stay blocked
+	 */
+	private static void idle(String name, boolean stealing, int port) throws Exception
+	{
+		Server server = new Server(port, 2, null, client ->
+		{
+			if(client.getInputBuffer().size() > 0)
+				client.getInputBuffer().reset();
+		}, null);
+		server.setHandlerStealing(stealing).setAcceptorIdleStrategy(BlockingIdleStrategy::new)
+				.setIOIdleStrategy(BlockingIdleStrategy::new).bind().start();
+
+		Socket[] sockets = new Socket[IDLE_CONNECTIONS];
+		for(int i = 0; i < sockets.length; i++)
+			sockets[i] = new Socket("localhost", port);
+
+		//let the connections settle before sampling
+		Thread.sleep(200);
+
+		long cpuStart = processCpuTime();
+		long wallStart = System.nanoTime();
+		Thread.sleep(IDLE_SAMPLE_MS);
+		double idleCpu = (processCpuTime() - cpuStart) * 100D / (System.nanoTime() - wallStart);
+
+		for(Socket socket : sockets)
+			socket.close();
+
+		server.stopSocketServer();
+
+		System.out.println(String.format("%-10s %10.1f", name, idleCpu));
+	}
+
+	private static long processCpuTime()
+	{
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+	}
+}
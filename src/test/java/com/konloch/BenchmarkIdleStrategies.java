@@ -0,0 +1,119 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.*;
+import com.konloch.vortex.interfaces.IdleStrategy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Latency and CPU matrix for each idle strategy, run with: java com.konloch.BenchmarkIdleStrategies
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkIdleStrategies
+{
+	//change this value to adjust the amount of ping-pong round trips per strategy
+	private static final int ROUND_TRIPS = 20_000;
+
+	//change this value to adjust the size of each ping
+	private static final int MESSAGE_SIZE = 32;
+
+	//change this value to adjust how long the CPU cost is sampled while the server is idle
+	private static final int IDLE_SAMPLE_MS = 2_000;
+
+	public static void main(String[] args) throws Exception
+	{
+		Map<String, Supplier<IdleStrategy>> strategies = new LinkedHashMap<>();
+		strategies.put("sleeping", SleepingIdleStrategy::new);
+		strategies.put("sleep-pass", () -> new SleepingIdleStrategy(1, true));
+		strategies.put("busy-spin", BusySpinIdleStrategy::new);
+		strategies.put("yielding", YieldingIdleStrategy::new);
+		strategies.put("backoff", BackoffIdleStrategy::new);
+		strategies.put("blocking", BlockingIdleStrategy::new);
+
+		System.out.println(String.format("%-10s %10s %10s %10s %10s %14s %14s",
+				"strategy", "p50 us", "p99 us", "p99.9 us", "max us", "busy CPU %", "idle CPU %"));
+
+		int port = 1200;
+		for(Map.Entry<String, Supplier<IdleStrategy>> entry : strategies.entrySet())
+			benchmark(entry.getKey(), entry.getValue(), port++);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, Supplier<IdleStrategy> strategy, int port) throws Exception
+	{
+		Server server = new Server(port, 1, null, client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+			client.write(bytes);
+		}, null);
+		server.setAcceptorIdleStrategy(strategy).setIOIdleStrategy(strategy).bind().start();
+
+		long[] latencies = new long[ROUND_TRIPS];
+		byte[] message = new byte[MESSAGE_SIZE];
+		byte[] response = new byte[MESSAGE_SIZE];
+
+		try (Socket socket = new Socket("localhost", port))
+		{
+			socket.setTcpNoDelay(true);
+			OutputStream out = socket.getOutputStream();
+			InputStream in = socket.getInputStream();
+
+			//warmup and measure
+			long cpuStart = processCpuTime();
+			long wallStart = System.nanoTime();
+			for(int i = -ROUND_TRIPS; i < ROUND_TRIPS; i++)
+			{
+				long start = System.nanoTime();
+				out.write(message);
+
+				int read = 0;
+				while(read < MESSAGE_SIZE)
+					read += in.read(response, read, MESSAGE_SIZE - read);
+
+				if(i >= 0)
+					latencies[i] = System.nanoTime() - start;
+			}
+			double busyCpu = percent(processCpuTime() - cpuStart, System.nanoTime() - wallStart);
+
+			//sample the cost of a connected but quiet client
+			cpuStart = processCpuTime();
+			wallStart = System.nanoTime();
+			Thread.sleep(IDLE_SAMPLE_MS);
+			double idleCpu = percent(processCpuTime() - cpuStart, System.nanoTime() - wallStart);
+
+			Arrays.sort(latencies);
+			System.out.println(String.format("%-10s %10d %10d %10d %10d %14.1f %14.1f", name,
+					Latency.percentile(latencies, 50) / 1_000, Latency.percentile(latencies, 99) / 1_000,
+					Latency.percentile(latencies, 99.9) / 1_000, latencies[latencies.length - 1] / 1_000, busyCpu, idleCpu));
+		}
+		finally
+		{
+			server.stopSocketServer();
+		}
+	}
+
+	private static double percent(long cpuNanos, long wallNanos)
+	{
+		return cpuNanos * 100D / wallNanos;
+	}
+
+	private static long processCpuTime()
+	{
+		return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+	}
+}
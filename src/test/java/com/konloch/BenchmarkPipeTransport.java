@@ -0,0 +1,116 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+import com.konloch.vortex.transport.PipeTransport;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Drives a large amount of simulated clients through the real IO, Client and handler code over in-memory pipes,
+ * measuring framework and handler overhead without any kernel noise, run with: java com.konloch.BenchmarkPipeTransport
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkPipeTransport
+{
+	//change this value to adjust the amount of simulated clients, each one keeps a single request in-flight
+	private static final int CLIENTS = 100_000;
+
+	//change this value to adjust the amount of IO threads
+	private static final int IO_THREADS = 2;
+
+	//change this value to adjust how long each mode runs for
+	private static final int DURATION_MS = 5_000;
+
+	//change this value to adjust the size of every request
+	private static final int REQUEST_SIZE = 16;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-24s %10s %12s %10s %10s", "pipe", "clients", "req/s", "p50 us", "p99 us"));
+
+		benchmark("unlimited", 0, 0);
+		benchmark("1 Gbit/s, 50us latency", 125_000_000, 50_000);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, long bandwidth, long latencyNanos) throws Exception
+	{
+		//no hostname and no unix domain socket path, the clients are handed to the server directly
+		Server server = new Server(null, -1, IO_THREADS, null, client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+			client.write(bytes);
+		}, null);
+		server.setIOIdleStrategy(BackoffIdleStrategy::new).setTimeout(Integer.MAX_VALUE).bind().start();
+
+		while(!server.isRunning())
+			Thread.sleep(1);
+
+		PipeTransport[] clients = new PipeTransport[CLIENTS];
+		for(int i = 0; i < clients.length; i++)
+		{
+			PipeTransport transport = new PipeTransport(bandwidth, latencyNanos, 4 * 1024);
+			server.accept(transport);
+			clients[i] = transport.getPeer();
+		}
+
+		long[] sentAt = new long[CLIENTS];
+		int[] received = new int[CLIENTS];
+		long[] latencies = new long[10_000_000];
+		int recorded = 0;
+		long requests = 0;
+
+		ByteBuffer request = ByteBuffer.allocate(REQUEST_SIZE);
+		ByteBuffer response = ByteBuffer.allocate(REQUEST_SIZE);
+		long end = System.currentTimeMillis() + DURATION_MS;
+
+		//a single driver thread sends a request on every idle client and collects every response that has arrived
+		while(System.currentTimeMillis() < end)
+		{
+			for(int i = 0; i < clients.length; i++)
+			{
+				PipeTransport client = clients[i];
+
+				if(sentAt[i] == 0)
+				{
+					request.clear();
+					client.write(request);
+					sentAt[i] = System.nanoTime();
+					received[i] = 0;
+					continue;
+				}
+
+				response.clear();
+				received[i] += client.read(response);
+
+				if(received[i] >= REQUEST_SIZE)
+				{
+					if(recorded < latencies.length)
+						latencies[recorded++] = System.nanoTime() - sentAt[i];
+
+					requests++;
+					sentAt[i] = 0;
+				}
+			}
+		}
+
+		server.stopSocketServer();
+		for(PipeTransport client : clients)
+			client.close();
+
+		long[] sorted = Arrays.copyOf(latencies, recorded);
+		Arrays.sort(sorted);
+
+		System.out.println(String.format("%-24s %10d %12.0f %10d %10d", name, CLIENTS, requests * 1000D / DURATION_MS,
+				Latency.percentile(sorted, 50) / 1_000, Latency.percentile(sorted, 99) / 1_000));
+	}
+}
@@ -0,0 +1,106 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compares latency and throughput of a unix domain socket with loopback TCP, this requires Java 16 or higher.
+ * Run with: java com.konloch.BenchmarkUnixDomainSocket
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkUnixDomainSocket
+{
+	//change this value to adjust the amount of ping-pong round trips for the latency test
+	private static final int ROUND_TRIPS = 20_000;
+
+	//change this value to adjust the amount of bytes echoed for the throughput test
+	private static final int THROUGHPUT_BYTES = 256 * 1024 * 1024;
+
+	//change this value to adjust the size of each throughput message
+	private static final int THROUGHPUT_MESSAGE_SIZE = 64 * 1024;
+
+	public static void main(String[] args) throws Exception
+	{
+		if(!Server.isUnixDomainSocketSupported())
+		{
+			System.out.println("Unix domain sockets require Java 16 or higher");
+			return;
+		}
+
+		Path path = Files.createTempDirectory("vortex").resolve("vortex.sock");
+		Server server = new Server("localhost", 1500, 1, null, client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+			client.write(bytes);
+		}, null);
+		server.setUnixDomainSocketPath(path).setIOIdleStrategy(BackoffIdleStrategy::new).setIOAmount(64 * 1024).bind().start();
+
+		//the unix domain socket address type only exists on Java 16+
+		SocketAddress unixAddress = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+				.getMethod("of", Path.class).invoke(null, path);
+
+		System.out.println(String.format("%-10s %10s %10s %10s %12s", "transport", "p50 us", "p99 us", "p99.9 us", "MB/s"));
+
+		benchmark("tcp", new InetSocketAddress("localhost", 1500));
+		benchmark("unix", unixAddress);
+
+		server.stopSocketServer();
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, SocketAddress address) throws Exception
+	{
+		try (SocketChannel channel = SocketChannel.open(address))
+		{
+			//latency
+			long[] latencies = new long[ROUND_TRIPS];
+			ByteBuffer ping = ByteBuffer.allocateDirect(32);
+			for(int i = -ROUND_TRIPS; i < ROUND_TRIPS; i++)
+			{
+				long start = System.nanoTime();
+				echo(channel, ping);
+
+				if(i >= 0)
+					latencies[i] = System.nanoTime() - start;
+			}
+			Arrays.sort(latencies);
+
+			//throughput
+			ByteBuffer message = ByteBuffer.allocateDirect(THROUGHPUT_MESSAGE_SIZE);
+			long start = System.nanoTime();
+			for(int i = 0; i < THROUGHPUT_BYTES / THROUGHPUT_MESSAGE_SIZE; i++)
+				echo(channel, message);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.println(String.format("%-10s %10d %10d %10d %12.1f", name,
+					Latency.percentile(latencies, 50) / 1_000, Latency.percentile(latencies, 99) / 1_000,
+					Latency.percentile(latencies, 99.9) / 1_000, THROUGHPUT_BYTES / seconds / (1024 * 1024)));
+		}
+	}
+
+	private static void echo(SocketChannel channel, ByteBuffer buffer) throws Exception
+	{
+		buffer.clear();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+
+		buffer.clear();
+		while(buffer.hasRemaining())
+			if(channel.read(buffer) < 0)
+				throw new IllegalStateException("Connection closed");
+	}
+}
@@ -0,0 +1,102 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Compares write syscalls and throughput with and without write coalescing,
+ * run with: java com.konloch.BenchmarkWriteCoalescing
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class BenchmarkWriteCoalescing
+{
+	//change this value to adjust the amount of requests per run
+	private static final int REQUESTS = 500;
+
+	//change this value to adjust the amount of writes the handler makes per response
+	private static final int WRITES_PER_RESPONSE = 50;
+
+	//change this value to adjust the size of each write
+	private static final int WRITE_SIZE = 40;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-10s %16s %14s", "mode", "syscalls/req", "requests/s"));
+
+		benchmark("default", false, 1300);
+		benchmark("corked", true, 1301);
+
+		System.exit(0);
+	}
+
+	private static void benchmark(String name, boolean corked, int port) throws Exception
+	{
+		byte[] chunk = new byte[WRITE_SIZE];
+		Server server = new Server(port, 1, null, client ->
+		{
+			//state 0 waits for a request, any other state is the amount of writes left for the response
+			if(client.getState() == 0)
+			{
+				if(client.getInputBuffer().size() == 0)
+					return;
+
+				client.getInputBuffer().reset();
+				client.setState(WRITES_PER_RESPONSE);
+				return;
+			}
+
+			client.write(chunk);
+			client.setState(client.getState() - 1);
+
+			if(client.getState() == 0)
+				client.flush();
+		}, null);
+		server.setWriteCoalescing(corked).setMaxWriteDelay(100).bind().start();
+
+		int responseSize = WRITES_PER_RESPONSE * WRITE_SIZE;
+		byte[] response = new byte[responseSize];
+
+		try (Socket socket = new Socket("localhost", port))
+		{
+			socket.setTcpNoDelay(true);
+			OutputStream out = socket.getOutputStream();
+			InputStream in = socket.getInputStream();
+
+			long syscallsStart = writeSyscalls();
+			long start = System.nanoTime();
+			for(int i = 0; i < REQUESTS; i++)
+			{
+				out.write(1);
+
+				int read = 0;
+				while(read < responseSize)
+					read += in.read(response, read, responseSize - read);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			//the client itself makes one write call per request
+			double syscalls = (writeSyscalls() - syscallsStart) / (double) REQUESTS - 1;
+			System.out.println(String.format("%-10s %16.1f %14.0f", name, syscalls, REQUESTS / (elapsed / 1e9)));
+		}
+		finally
+		{
+			server.stopSocketServer();
+		}
+	}
+
+	private static long writeSyscalls() throws Exception
+	{
+		for(String line : Files.readAllLines(Paths.get("/proc/self/io")))
+			if(line.startsWith("syscw:"))
+				return Long.parseLong(line.substring(6).trim());
+
+		return 0;
+	}
+}
@@ -0,0 +1,44 @@
+package com.konloch;
+
+/**
+ * Shared pass/fail bookkeeping for the tests
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class Checks
+{
+	private static int failures;
+
+	private Checks()
+	{
+	}
+
+	/**
+	 * Print the result of a single check and count it if it failed
+	 * @param name the name of the check
+	 * @param expected the expected value
+	 * @param actual the actual value
+	 */
+	static void check(String name, String expected, String actual)
+	{
+		if(expected.equals(actual))
+		{
+			System.out.println(name + ": OK");
+		}
+		else
+		{
+			System.out.println(name + ": expected " + expected + " but got " + actual);
+			failures++;
+		}
+	}
+
+	/**
+	 * Print the summary and exit, with a non-zero status if any check failed
+	 */
+	static void exit()
+	{
+		System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+		System.exit(failures == 0 ? 0 : 1);
+	}
+}
@@ -0,0 +1,28 @@
+package com.konloch;
+
+/**
+ * Shared latency math for the tests and benchmarks
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class Latency
+{
+	private Latency()
+	{
+	}
+
+	/**
+	 * Returns a percentile of sorted latencies
+	 * @param sorted the latencies in nanoseconds, sorted in ascending order
+	 * @param percentile any percentile between 0 and 100
+	 * @return the latency at the percentile in nanoseconds, or 0 if there are no latencies
+	 */
+	static long percentile(long[] sorted, double percentile)
+	{
+		if(sorted.length == 0)
+			return 0;
+
+		return sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+	}
+}
@@ -0,0 +1,60 @@
+package com.konloch;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+/**
+ * Shared request and response round trip for the tests
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+final class Ping
+{
+	private Ping()
+	{
+	}
+
+	/**
+	 * Send a request and wait for the expected response
+	 * @param socket the connection to ping
+	 * @param request the bytes to send
+	 * @param response the bytes expected back
+	 * @param timeoutMillis how long to wait for the response
+	 * @return answered, unexpected, closed or timeout
+	 */
+	static String ping(Socket socket, byte[] request, byte[] response, int timeoutMillis)
+	{
+		try
+		{
+			socket.setSoTimeout(timeoutMillis);
+			socket.getOutputStream().write(request);
+
+			byte[] received = new byte[response.length];
+			int offset = 0;
+
+			while(offset < received.length)
+			{
+				int read = socket.getInputStream().read(received, offset, received.length - offset);
+
+				if(read < 0)
+					return "closed";
+
+				offset += read;
+			}
+
+			return Arrays.equals(received, response) ? "answered" : "unexpected";
+		}
+		catch (SocketTimeoutException e)
+		{
+			return "timeout";
+		}
+		catch (IOException e)
+		{
+			//reset by the server
+			return "closed";
+		}
+	}
+}
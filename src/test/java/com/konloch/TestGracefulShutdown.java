@@ -0,0 +1,195 @@
+package com.konloch;
+
+import com.konloch.vortex.Client;
+import com.konloch.vortex.Server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands a port over to a replacement server with SO_REUSEPORT while the old one drains a large download, then checks
+ * that a client which hung up after being served does not hold up the drain and that a connection stuck mid-request
+ * is closed at the deadline, run with: java com.konloch.TestGracefulShutdown
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestGracefulShutdown
+{
+	//change this value to adjust the size of the download drained during the handoff
+	private static final int DOWNLOAD_SIZE = 16 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception
+	{
+		testHandoff();
+		testHungUp();
+		testDeadline();
+
+		Checks.exit();
+	}
+
+	private static void testHandoff() throws Exception
+	{
+		Server old = new Server(2200, 2, null, TestGracefulShutdown::handle, null);
+		old.setReusePort(true).bind().start();
+
+		Socket download = new Socket("localhost", 2200);
+		download.getOutputStream().write("BIG\n".getBytes(StandardCharsets.US_ASCII));
+		InputStream downloadIn = download.getInputStream();
+		AtomicLong downloaded = new AtomicLong(downloadIn.read() < 0 ? 0 : 1);
+
+		//read the download slowly, so most of it is still queued on the old server once it starts draining
+		Thread reader = new Thread(() ->
+		{
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+
+			try
+			{
+				while((read = downloadIn.read(buffer)) >= 0)
+				{
+					downloaded.addAndGet(read);
+					Thread.sleep(2);
+				}
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
+		});
+		reader.start();
+
+		Socket idle = new Socket("localhost", 2200);
+		Checks.check("ping before handoff", "answered", ping(idle));
+
+		Server replacement = new Server(2200, 2, null, TestGracefulShutdown::handle, null);
+		replacement.setReusePort(true).bind().start();
+
+		AtomicBoolean drained = new AtomicBoolean();
+		Thread shutdown = new Thread(() ->
+		{
+			try
+			{
+				drained.set(old.shutdownGracefully(Duration.ofSeconds(30)));
+			}
+			catch (InterruptedException e)
+			{
+				e.printStackTrace();
+			}
+		});
+		long start = System.currentTimeMillis();
+		shutdown.start();
+
+		//the idle connection has nothing left to send, so it is closed straight away
+		Checks.check("idle closed", "-1", String.valueOf(idle.getInputStream().read()));
+		Checks.check("idle closed quickly", "true", String.valueOf(System.currentTimeMillis() - start < 1_000));
+		idle.close();
+
+		//every new connection during the handoff is served, by either server
+		int served = 0;
+		for(int i = 0; i < 50; i++)
+		{
+			try (Socket socket = new Socket("localhost", 2200))
+			{
+				if("answered".equals(ping(socket)))
+					served++;
+			}
+			catch (Exception e)
+			{
+				//refused or reset
+			}
+		}
+		Checks.check("served during handoff", "50", String.valueOf(served));
+
+		shutdown.join();
+		reader.join();
+		download.close();
+
+		Checks.check("drained", "true", String.valueOf(drained.get()));
+		Checks.check("download complete", String.valueOf(DOWNLOAD_SIZE), String.valueOf(downloaded.get()));
+		Checks.check("old stopped", "true", String.valueOf(old.hasStopped()));
+
+		try (Socket socket = new Socket("localhost", 2200))
+		{
+			Checks.check("ping after handoff", "answered", ping(socket));
+		}
+
+		replacement.stopSocketServer();
+	}
+
+	private static void testHungUp() throws Exception
+	{
+		Server server = new Server(2202, 1, null, TestGracefulShutdown::handle, null);
+		server.bind().start();
+
+		//served in full, then closed by the client, which leaves the server reading the end of the stream every pass
+		try (Socket socket = new Socket("localhost", 2202))
+		{
+			Checks.check("ping before hang up", "answered", ping(socket));
+		}
+
+		Thread.sleep(100);
+
+		long start = System.currentTimeMillis();
+		Checks.check("hung up drained", "true", String.valueOf(server.shutdownGracefully(Duration.ofSeconds(5))));
+		Checks.check("hung up drained quickly", "true", String.valueOf(System.currentTimeMillis() - start < 1_000));
+	}
+
+	private static void testDeadline() throws Exception
+	{
+		Server server = new Server(2201, 1, null, TestGracefulShutdown::handle, null);
+		server.bind().start();
+
+		try (Socket socket = new Socket("localhost", 2201))
+		{
+			//a request that never completes keeps the connection from draining
+			socket.getOutputStream().write("PIN".getBytes(StandardCharsets.US_ASCII));
+			Thread.sleep(100);
+
+			long start = System.currentTimeMillis();
+			Checks.check("deadline reached", "false", String.valueOf(server.shutdownGracefully(Duration.ofMillis(300))));
+			Checks.check("closed at deadline", "-1", String.valueOf(socket.getInputStream().read()));
+			Checks.check("closed in time", "true", String.valueOf(System.currentTimeMillis() - start < 1_000));
+		}
+	}
+
+	private static String ping(Socket socket)
+	{
+		return Ping.ping(socket, "PING\n".getBytes(StandardCharsets.US_ASCII), "PONG\n".getBytes(StandardCharsets.US_ASCII), 5_000);
+	}
+
+	/**
+	 * Answers PING with PONG and BIG with a large download, once per complete line
+	 */
+	private static void handle(Client client)
+	{
+		byte[] input = client.getInputBuffer().toByteArray();
+		int start = 0;
+
+		for(int i = 0; i < input.length; i++)
+		{
+			if(input[i] != '\n')
+				continue;
+
+			String line = new String(input, start, i - start, StandardCharsets.US_ASCII);
+			start = i + 1;
+
+			if(line.equals("BIG"))
+				client.write(new byte[DOWNLOAD_SIZE]);
+			else
+				client.write("PONG\n".getBytes(StandardCharsets.US_ASCII));
+		}
+
+		if(start == 0)
+			return;
+
+		ByteArrayOutputStream buffer = client.getInputBuffer();
+		buffer.reset();
+		buffer.write(input, start, input.length - start);
+	}
+}
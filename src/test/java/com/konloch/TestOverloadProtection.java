@@ -0,0 +1,309 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.idle.BackoffIdleStrategy;
+import com.konloch.vortex.transport.PipeTransport;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives a single IO thread past saturation with and without overload protection and checks the protection lowers
+ * the p99 latency of admitted connections several times over, reporting both against an SLO, then checks the per-address cap, the global cap and idle connection
+ * shedding, run with: java com.konloch.TestOverloadProtection
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestOverloadProtection
+{
+	//change this value to increase the amount of concurrent connections, each one keeps a single request in-flight
+	private static final int CONNECTIONS = 400;
+
+	//change this value to adjust the CPU time the handler spends on every request
+	private static final long HANDLER_NANOS = 100_000;
+
+	//change this value to adjust how long each mode runs for
+	private static final int DURATION_MS = 5_000;
+
+	//the latency objective for admitted connections
+	private static final long SLO_MS = 20;
+
+	//how many times lower the protected p99 has to be than the unprotected p99
+	private static final int IMPROVEMENT = 3;
+
+	//how long a connection waits for an answer before it is treated as left in the backlog
+	private static final int ANSWER_TIMEOUT_MS = 500;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.out.println(String.format("%-12s %10s %10s %10s %10s %8s", "mode", "admitted", "req/s", "p50 ms", "p99 ms", "SLO"));
+
+		double unprotected = run("unprotected", false, 1700);
+		double protectedP99 = run("protected", true, 1701);
+
+		//a single run on a busy machine can miss the SLO by a few milliseconds, the improvement over no protection can not
+		Checks.check("protected p99 at least " + IMPROVEMENT + "x better", "true",
+				String.valueOf(protectedP99 > 0 && protectedP99 * IMPROVEMENT <= unprotected));
+
+		testPerAddressCap();
+		testGlobalCap();
+		testGlobalCapTransports();
+		testIdleShedding();
+
+		Checks.exit();
+	}
+
+	private static void testPerAddressCap() throws Exception
+	{
+		Server server = echoServer(1702).setMaxConnectionsPerAddress(2);
+		server.bind().start();
+
+		//the first connection is closed part way through, so it is not a resource of the try block
+		Socket first = new Socket("localhost", 1702);
+
+		try (Socket second = new Socket("localhost", 1702);
+		     Socket third = new Socket("localhost", 1702))
+		{
+			Checks.check("per-address first", "answered", ping(first));
+			Checks.check("per-address second", "answered", ping(second));
+			Checks.check("per-address third", "closed", ping(third));
+
+			//the address gets its place back once one of its connections has gone
+			first.close();
+			Thread.sleep(100);
+
+			try (Socket fourth = new Socket("localhost", 1702))
+			{
+				Checks.check("per-address after release", "answered", ping(fourth));
+			}
+		}
+
+		server.stopSocketServer();
+	}
+
+	private static void testGlobalCap() throws Exception
+	{
+		Server server = echoServer(1703).setMaxConnections(2);
+		server.bind().start();
+
+		Socket first = new Socket("localhost", 1703);
+
+		try (Socket second = new Socket("localhost", 1703);
+		     Socket third = new Socket("localhost", 1703))
+		{
+			Checks.check("global first", "answered", ping(first));
+			Checks.check("global second", "answered", ping(second));
+
+			//the third connection is left in the kernel backlog, not refused
+			Checks.check("global third waits", "timeout", ping(third));
+			Checks.check("global connection count", "2", String.valueOf(server.getConnectionCount()));
+
+			first.close();
+			Checks.check("global third after release", "answered", ping(third));
+		}
+
+		server.stopSocketServer();
+	}
+
+	private static void testGlobalCapTransports() throws Exception
+	{
+		//no hostname and no unix domain socket path, the transports are handed to the server directly
+		Server server = new Server(null, -1, 1, null, client -> {}, null).setMaxConnections(2);
+		server.bind().start();
+
+		while(!server.isRunning())
+			Thread.sleep(1);
+
+		PipeTransport[] transports = new PipeTransport[10];
+		int open = 0;
+
+		for(int i = 0; i < transports.length; i++)
+		{
+			transports[i] = new PipeTransport();
+			server.accept(transports[i]);
+
+			if(transports[i].isOpen())
+				open++;
+		}
+
+		Checks.check("global cap transports admitted", "2", String.valueOf(server.getConnectionCount()));
+		Checks.check("global cap transports left open", "2", String.valueOf(open));
+
+		server.stopSocketServer();
+
+		for(PipeTransport transport : transports)
+			transport.close();
+	}
+
+	private static void testIdleShedding() throws Exception
+	{
+		Server server = echoServer(1704).setMaxConnections(2).setShedIdleConnections(200);
+		server.bind().start();
+
+		try (Socket first = new Socket("localhost", 1704);
+		     Socket second = new Socket("localhost", 1704))
+		{
+			//the activity times are in milliseconds, so leave a gap to make the first one clearly the longest idle
+			Checks.check("shedding first", "answered", ping(first));
+			Thread.sleep(50);
+			Checks.check("shedding second", "answered", ping(second));
+			Thread.sleep(300);
+
+			//both are idle past the shedding time, so the longest idle one makes room for the new connection
+			try (Socket third = new Socket("localhost", 1704))
+			{
+				Checks.check("shedding third", "answered", ping(third));
+				Checks.check("shedding longest idle", "closed", ping(first));
+				Checks.check("shedding keeps the rest", "answered", ping(second));
+			}
+		}
+
+		server.stopSocketServer();
+	}
+
+	/**
+	 * Returns a server that answers every byte with the same byte, and closes connections once the client hangs up
+	 * so they give up their place straight away
+	 */
+	private static Server echoServer(int port)
+	{
+		Server server = new Server(port, 1, null, client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+			client.write(bytes);
+		}, null);
+
+		return server.setCloseOnEndOfStream(true);
+	}
+
+	/**
+	 * Send a single byte and wait for it to be echoed
+	 * @return answered, closed or timeout
+	 */
+	private static String ping(Socket socket)
+	{
+		return Ping.ping(socket, new byte[]{1}, new byte[]{1}, ANSWER_TIMEOUT_MS);
+	}
+
+	private static double run(String name, boolean protection, int port) throws Exception
+	{
+		Server server = new Server(port, 1, null, client ->
+		{
+			int requests = client.getInputBuffer().size();
+
+			if(requests == 0)
+				return;
+
+			client.getInputBuffer().reset();
+
+			for(int i = 0; i < requests; i++)
+			{
+				//simulate CPU-bound request processing
+				long end = System.nanoTime() + HANDLER_NANOS;
+				while(System.nanoTime() < end)
+				{
+					//spin
+				}
+
+				client.write(new byte[]{1});
+			}
+		}, null);
+
+		//a request can wait for the rest of the current pass, be handled in the next and written in the one after,
+		//so the pass latency limit is set well below the SLO
+		if(protection)
+			server.setMaxLoopLatency((int) SLO_MS / 5);
+
+		server.setIOIdleStrategy(BackoffIdleStrategy::new).bind().start();
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+		Thread[] threads = new Thread[CONNECTIONS];
+		for(int i = 0; i < threads.length; i++)
+		{
+			threads[i] = new Thread(() ->
+			{
+				long[] recorded = new long[DURATION_MS * 10];
+				int count = 0;
+
+				try (Socket socket = new Socket())
+				{
+					socket.connect(new InetSocketAddress("localhost", port), DURATION_MS);
+					socket.setTcpNoDelay(true);
+					socket.setSoTimeout(DURATION_MS);
+					OutputStream out = socket.getOutputStream();
+					InputStream in = socket.getInputStream();
+					boolean first = true;
+
+					while(running.get())
+					{
+						long start = System.nanoTime();
+						out.write(1);
+
+						if(in.read() < 0)
+							break;
+
+						//the first request includes the time spent waiting in the accept backlog
+						if(first)
+							first = false;
+						else if(count < recorded.length)
+							recorded[count++] = System.nanoTime() - start;
+					}
+				}
+				catch (Exception e)
+				{
+					//not admitted before the run ended
+				}
+
+				if(count > 0)
+				{
+					long[] trimmed = new long[count];
+					System.arraycopy(recorded, 0, trimmed, 0, count);
+					latencies.add(trimmed);
+				}
+			});
+			threads[i].start();
+		}
+
+		Thread.sleep(DURATION_MS);
+		running.set(false);
+		server.stopSocketServer();
+
+		for(Thread thread : threads)
+			thread.join();
+
+		int total = 0;
+		for(long[] recorded : latencies)
+			total += recorded.length;
+
+		long[] all = new long[total];
+		int offset = 0;
+		for(long[] recorded : latencies)
+		{
+			System.arraycopy(recorded, 0, all, offset, recorded.length);
+			offset += recorded.length;
+		}
+		Arrays.sort(all);
+
+		double p50 = Latency.percentile(all, 50) / 1_000_000D;
+		double p99 = Latency.percentile(all, 99) / 1_000_000D;
+		boolean met = total > 0 && p99 <= SLO_MS;
+
+		System.out.println(String.format("%-12s %10d %10.0f %10.2f %10.2f %8s", name, latencies.size(),
+				total * 1000D / DURATION_MS, p50, p99, met ? "met" : "missed"));
+
+		return total > 0 ? p99 : -1;
+	}
+}
@@ -0,0 +1,220 @@
+package com.konloch;
+
+import com.konloch.vortex.Client;
+import com.konloch.vortex.ProtocolSniffer;
+import com.konloch.vortex.Server;
+import com.konloch.vortex.interfaces.ClientRunnable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves an HTTP health check, a websocket-like protocol sharing its prefix, a length-prefixed binary protocol and a
+ * line protocol from a single port, including a line connection upgrading to the binary protocol,
+ * run with: java com.konloch.TestProtocolSniffing
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestProtocolSniffing
+{
+	private static final byte[] BINARY_MAGIC = {(byte) 0xB1, 0x0A};
+
+	public static void main(String[] args) throws Exception
+	{
+		ClientRunnable binary = TestProtocolSniffing::binary;
+
+		//the websocket prefix is a longer form of the http one, so it has to be added first and waited on
+		ProtocolSniffer sniffer = new ProtocolSniffer()
+				.addProtocol("websocket", ProtocolSniffer.prefix("GET /ws"), TestProtocolSniffing::websocket)
+				.addProtocol("http", ProtocolSniffer.prefix("GET ", "HEAD ", "POST "), TestProtocolSniffing::http)
+				.addProtocol("binary", ProtocolSniffer.prefix(BINARY_MAGIC), binary, client -> consume(client, BINARY_MAGIC.length))
+				.setFallback(client -> line(client, binary));
+
+		Server server = new Server(2000, 2, null, sniffer, null);
+		server.bind().start();
+
+		testHttp();
+		testWebsocket();
+		testBinary();
+		testLine();
+		testUpgrade();
+
+		server.stopSocketServer();
+
+		Checks.exit();
+	}
+
+	private static void testHttp() throws Exception
+	{
+		try (Socket socket = new Socket("localhost", 2000))
+		{
+			socket.getOutputStream().write("GET /health HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Checks.check("http", "HTTP/1.1 200 OK", in.readLine());
+		}
+	}
+
+	private static void testWebsocket() throws Exception
+	{
+		try (Socket socket = new Socket("localhost", 2000))
+		{
+			//"GET /" already matches http, but the websocket protocol was added first and can still match
+			socket.getOutputStream().write("GET /".getBytes(StandardCharsets.US_ASCII));
+			Thread.sleep(100);
+
+			socket.getOutputStream().write("ws HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Checks.check("websocket", "WEBSOCKET", in.readLine());
+		}
+	}
+
+	private static void testBinary() throws Exception
+	{
+		try (Socket socket = new Socket("localhost", 2000))
+		{
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			out.write(BINARY_MAGIC);
+			Checks.check("binary", "olleh", binaryRoundTrip(out, in, "hello"));
+			Checks.check("binary", "dlrow", binaryRoundTrip(out, in, "world"));
+		}
+	}
+
+	private static void testLine() throws Exception
+	{
+		try (Socket socket = new Socket("localhost", 2000))
+		{
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			socket.getOutputStream().write("hello\nworld\n".getBytes(StandardCharsets.US_ASCII));
+			Checks.check("line", "HELLO", in.readLine());
+			Checks.check("line", "WORLD", in.readLine());
+		}
+	}
+
+	private static void testUpgrade() throws Exception
+	{
+		try (Socket socket = new Socket("localhost", 2000))
+		{
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			out.write("UPGRADE\n".getBytes(StandardCharsets.US_ASCII));
+
+			byte[] ok = new byte[3];
+			in.readFully(ok);
+			Checks.check("upgrade", "OK\n", new String(ok, StandardCharsets.US_ASCII));
+			Checks.check("upgrade", "edargpu", binaryRoundTrip(out, in, "upgrade"));
+		}
+	}
+
+	private static String binaryRoundTrip(DataOutputStream out, DataInputStream in, String message) throws Exception
+	{
+		byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+
+		byte[] response = new byte[in.readInt()];
+		in.readFully(response);
+		return new String(response, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Answers every request with a 200, once the request headers are complete
+	 */
+	private static void http(Client client)
+	{
+		String request = new String(client.getInputBuffer().toByteArray(), StandardCharsets.US_ASCII);
+
+		if(!request.contains("\r\n\r\n"))
+			return;
+
+		client.getInputBuffer().reset();
+		client.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nOK".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Answers the websocket request once it is complete
+	 */
+	private static void websocket(Client client)
+	{
+		String request = new String(client.getInputBuffer().toByteArray(), StandardCharsets.US_ASCII);
+
+		if(!request.contains("\r\n\r\n"))
+			return;
+
+		client.getInputBuffer().reset();
+		client.write("WEBSOCKET\n".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Answers every length-prefixed frame with its payload reversed
+	 */
+	private static void binary(Client client)
+	{
+		byte[] input = client.getInputBuffer().toByteArray();
+		ByteBuffer buffer = ByteBuffer.wrap(input);
+
+		while(buffer.remaining() >= 4 && buffer.remaining() >= 4 + buffer.getInt(buffer.position()))
+		{
+			byte[] payload = new byte[buffer.getInt()];
+			buffer.get(payload);
+
+			ByteBuffer response = ByteBuffer.allocate(4 + payload.length).putInt(payload.length);
+			for(int i = payload.length - 1; i >= 0; i--)
+				response.put(payload[i]);
+
+			client.write(response.array());
+		}
+
+		consume(client, buffer.position());
+	}
+
+	/**
+	 * Answers every line in upper case, until the connection upgrades to the binary protocol
+	 */
+	private static void line(Client client, ClientRunnable upgrade)
+	{
+		byte[] input = client.getInputBuffer().toByteArray();
+		int start = 0;
+
+		for(int i = 0; i < input.length; i++)
+		{
+			if(input[i] != '\n')
+				continue;
+
+			String line = new String(input, start, i - start, StandardCharsets.US_ASCII);
+			start = i + 1;
+
+			if(line.equals("UPGRADE"))
+			{
+				client.write("OK\n".getBytes(StandardCharsets.US_ASCII));
+				client.setRequestHandler(upgrade);
+				break;
+			}
+
+			client.write((line.toUpperCase() + "\n").getBytes(StandardCharsets.US_ASCII));
+		}
+
+		consume(client, start);
+	}
+
+	/**
+	 * Drop bytes from the front of the input buffer, keeping the rest for the next call
+	 */
+	private static void consume(Client client, int amount)
+	{
+		if(amount == 0)
+			return;
+
+		byte[] input = client.getInputBuffer().toByteArray();
+		ByteArrayOutputStream buffer = client.getInputBuffer();
+		buffer.reset();
+		buffer.write(input, amount, input.length - amount);
+	}
+}
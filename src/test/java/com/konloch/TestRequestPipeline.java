@@ -0,0 +1,104 @@
+package com.konloch;
+
+import com.konloch.vortex.Client;
+import com.konloch.vortex.RequestPipeline;
+import com.konloch.vortex.Server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes pipelined requests in reverse order on a worker pool and checks their responses are still written in
+ * request order, that reserving stops at the in-flight cap and that slots are reused correctly once the sequence
+ * wraps around them, run with: java com.konloch.TestRequestPipeline
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestRequestPipeline
+{
+	//change this value to adjust the maximum amount of in-flight requests per client
+	private static final int MAX_IN_FLIGHT = 4;
+
+	//change this value to adjust the amount of requests sent, it should be several times the in-flight cap
+	private static final int REQUESTS = 100;
+
+	private static final ScheduledExecutorService WORKERS = Executors.newScheduledThreadPool(4);
+	private static final AtomicInteger CAP_REACHED = new AtomicInteger();
+	private static final AtomicInteger MAX_OBSERVED = new AtomicInteger();
+
+	public static void main(String[] args) throws Exception
+	{
+		Server server = new Server(2210, 1, null, TestRequestPipeline::handle, null);
+		server.setMaxPipelinedRequests(MAX_IN_FLIGHT).bind().start();
+
+		try (Socket socket = new Socket("localhost", 2210))
+		{
+			//every request is sent at once, so the handler runs into the in-flight cap
+			byte[] requests = new byte[REQUESTS];
+			for(int i = 0; i < requests.length; i++)
+				requests[i] = (byte) i;
+
+			socket.getOutputStream().write(requests);
+
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			int outOfOrder = 0;
+
+			for(int i = 0; i < REQUESTS; i++)
+				if(in.readInt() != i)
+					outOfOrder++;
+
+			Checks.check("responses in request order", "0", String.valueOf(outOfOrder));
+		}
+
+		Checks.check("reserve returned -1 at the cap", "true", String.valueOf(CAP_REACHED.get() > 0));
+		Checks.check("in-flight never above the cap", String.valueOf(MAX_IN_FLIGHT), String.valueOf(MAX_OBSERVED.get()));
+
+		server.stopSocketServer();
+		WORKERS.shutdown();
+
+		Checks.exit();
+	}
+
+	/**
+	 * Reserves a slot for every request byte until the cap is reached, each batch of slots completes in reverse order
+	 */
+	private static void handle(Client client)
+	{
+		RequestPipeline pipeline = client.getPipeline();
+		byte[] input = client.getInputBuffer().toByteArray();
+		int consumed = 0;
+
+		while(consumed < input.length)
+		{
+			long sequence = pipeline.reserve();
+
+			if(sequence < 0)
+			{
+				//the rest of the requests wait in the input buffer until earlier responses have been released
+				CAP_REACHED.incrementAndGet();
+				break;
+			}
+
+			MAX_OBSERVED.accumulateAndGet(pipeline.getInFlight(), Math::max);
+
+			int request = input[consumed++];
+			long delay = (MAX_IN_FLIGHT - 1 - sequence % MAX_IN_FLIGHT) * 5;
+			WORKERS.schedule(() -> pipeline.complete(sequence, ByteBuffer.allocate(4).putInt(request).array()),
+					delay, TimeUnit.MILLISECONDS);
+		}
+
+		if(consumed == 0)
+			return;
+
+		ByteArrayOutputStream buffer = client.getInputBuffer();
+		buffer.reset();
+		buffer.write(input, consumed, input.length - consumed);
+	}
+}
@@ -0,0 +1,142 @@
+package com.konloch;
+
+import com.konloch.vortex.Client;
+import com.konloch.vortex.Server;
+
+import java.io.ByteArrayOutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stalls an IO thread with a handler that sleeps for 500ms against a 100ms threshold, then checks the stall handler
+ * fires once per stall with the client's uid and that new connections are kept off the stalled thread,
+ * run with: java com.konloch.TestStallWatchdog
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestStallWatchdog
+{
+	//change this value to adjust how long the stalling handler sleeps for
+	private static final int STALL_MS = 500;
+
+	//change this value to adjust the stall threshold
+	private static final int THRESHOLD_MS = 100;
+
+	private static final AtomicInteger STALLS = new AtomicInteger();
+	private static final AtomicLong STALLED_UID = new AtomicLong(-2);
+	private static final AtomicLong STALLED_MILLIS = new AtomicLong();
+	private static final Map<Long, Thread> HANDLER_THREADS = new ConcurrentHashMap<>();
+	private static volatile boolean stackTraceInHandler;
+
+	public static void main(String[] args) throws Exception
+	{
+		Server server = new Server(2220, 2, null, TestStallWatchdog::handle, null);
+		server.setStallThreshold(THRESHOLD_MS).setAvoidStalledThreads(true).setStallHandler((ioThread, clientUID, stalledMillis, stackTrace) ->
+		{
+			STALLS.incrementAndGet();
+			STALLED_UID.set(clientUID);
+			STALLED_MILLIS.set(stalledMillis);
+			stackTraceInHandler = Arrays.stream(stackTrace).anyMatch(element -> element.getMethodName().contains("handle"));
+		}).bind().start();
+
+		try (Socket stalling = new Socket("localhost", 2220))
+		{
+			long stallingUID = ping(stalling);
+			Thread stalledThread = HANDLER_THREADS.get(stallingUID);
+
+			//stall the thread, then connect while it is stuck in the handler
+			stalling.getOutputStream().write("SLEEP\n".getBytes(StandardCharsets.US_ASCII));
+			Thread.sleep(THRESHOLD_MS * 2);
+
+			int avoided = 0;
+			for(int i = 0; i < 3; i++)
+			{
+				try (Socket socket = new Socket("localhost", 2220))
+				{
+					if(HANDLER_THREADS.get(ping(socket)) != stalledThread)
+						avoided++;
+				}
+			}
+
+			//wait for the stall to end, then stall the same thread a second time
+			ping(stalling);
+			Checks.check("stall reported once", "1", String.valueOf(STALLS.get()));
+			Checks.check("stalled client uid", String.valueOf(stallingUID), String.valueOf(STALLED_UID.get()));
+			Checks.check("stalled for at least the threshold", "true", String.valueOf(STALLED_MILLIS.get() >= THRESHOLD_MS));
+			Checks.check("stack trace inside the handler", "true", String.valueOf(stackTraceInHandler));
+			Checks.check("new connections avoided the stalled thread", "3", String.valueOf(avoided));
+
+			stalling.getOutputStream().write("SLEEP\n".getBytes(StandardCharsets.US_ASCII));
+			ping(stalling);
+			Checks.check("second stall reported once", "2", String.valueOf(STALLS.get()));
+		}
+
+		server.stopSocketServer();
+
+		Checks.exit();
+	}
+
+	/**
+	 * Send a ping and wait for the pong, which carries the uid the server assigned the connection
+	 */
+	private static long ping(Socket socket) throws Exception
+	{
+		socket.getOutputStream().write("PING\n".getBytes(StandardCharsets.US_ASCII));
+
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int read;
+
+		while((read = socket.getInputStream().read()) >= 0 && read != '\n')
+			line.write(read);
+
+		return Long.parseLong(new String(line.toByteArray(), StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Answers PING with the client's uid and sleeps on SLEEP, once per complete line
+	 */
+	private static void handle(Client client)
+	{
+		byte[] input = client.getInputBuffer().toByteArray();
+		int start = 0;
+
+		for(int i = 0; i < input.length; i++)
+		{
+			if(input[i] != '\n')
+				continue;
+
+			String line = new String(input, start, i - start, StandardCharsets.US_ASCII);
+			start = i + 1;
+
+			if(line.equals("SLEEP"))
+			{
+				try
+				{
+					Thread.sleep(STALL_MS);
+				}
+				catch (InterruptedException e)
+				{
+					e.printStackTrace();
+				}
+			}
+			else
+			{
+				HANDLER_THREADS.put(client.getUID(), Thread.currentThread());
+				client.write((client.getUID() + "\n").getBytes(StandardCharsets.US_ASCII));
+			}
+		}
+
+		if(start == 0)
+			return;
+
+		ByteArrayOutputStream buffer = client.getInputBuffer();
+		buffer.reset();
+		buffer.write(input, start, input.length - start);
+	}
+}
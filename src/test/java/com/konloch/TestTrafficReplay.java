@@ -0,0 +1,129 @@
+package com.konloch;
+
+import com.konloch.vortex.Server;
+import com.konloch.vortex.TrafficRecorder;
+import com.konloch.vortex.TrafficReplay;
+import com.konloch.vortex.interfaces.ClientRunnable;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records traffic from a handful of clients, then replays it against the original handler and a slower variant
+ * at the original and an accelerated speed, and checks every request was replayed and the slower handler shows up in
+ * the latencies, run with: java com.konloch.TestTrafficReplay
+ *
+ * @author Konloch
+ * @since 10/19/2026
+ */
+public class TestTrafficReplay
+{
+	//change this value to adjust the amount of recorded connections
+	private static final int CONNECTIONS = 8;
+
+	//change this value to adjust the amount of requests each recorded connection sends
+	private static final int REQUESTS = 200;
+
+	public static void main(String[] args) throws Exception
+	{
+		Path log = Files.createTempFile("vortex-", ".traffic");
+
+		//record
+		Server server = new Server(1900, 2, null, echo(0), null);
+		TrafficRecorder recorder = new TrafficRecorder(log, 1, 1024 * 1024);
+		server.setTrafficRecorder(recorder).setCloseOnEndOfStream(true).bind().start();
+
+		Thread[] threads = new Thread[CONNECTIONS];
+		for(int i = 0; i < threads.length; i++)
+		{
+			threads[i] = new Thread(() ->
+			{
+				try (Socket socket = new Socket("localhost", 1900))
+				{
+					socket.setTcpNoDelay(true);
+					OutputStream out = socket.getOutputStream();
+					DataInputStream in = new DataInputStream(socket.getInputStream());
+
+					for(int r = 0; r < REQUESTS; r++)
+					{
+						byte[] request = new byte[ThreadLocalRandom.current().nextInt(1, 512)];
+						out.write(request);
+						in.readFully(new byte[request.length]);
+						Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+					}
+				}
+				catch (Exception e)
+				{
+					e.printStackTrace();
+				}
+			});
+			threads[i].start();
+		}
+
+		for(Thread thread : threads)
+			thread.join();
+
+		//give the IO threads a moment to notice the clients hung up
+		Thread.sleep(100);
+		server.stopSocketServer();
+		recorder.close();
+
+		System.out.println("Recorded " + Files.size(log) + " bytes to " + log);
+
+		//replay
+		TrafficReplay replay = new TrafficReplay(log);
+		TrafficReplay.Result original = replay("original 1x", replay.setSpeed(1), echo(0), 1901);
+		TrafficReplay.Result originalMax = replay("original max", replay.setSpeed(0), echo(0), 1902);
+		TrafficReplay.Result slower = replay("slower 1x", replay.setSpeed(1), echo(1_000_000), 1903);
+		TrafficReplay.Result slowerMax = replay("slower max", replay.setSpeed(0), echo(1_000_000), 1904);
+
+		//the slower handler spins for 1ms on every request, so its median has to move past the original's
+		Checks.check("slower 1x p50 above original", "true",
+				String.valueOf(slower.getPercentile(50) > original.getPercentile(50)));
+		Checks.check("slower max p50 above original", "true",
+				String.valueOf(slowerMax.getPercentile(50) > originalMax.getPercentile(50)));
+
+		Files.delete(log);
+		Checks.exit();
+	}
+
+	private static TrafficReplay.Result replay(String name, TrafficReplay replay, ClientRunnable handler, int port) throws Exception
+	{
+		Server server = new Server(port, 2, null, handler, null);
+		server.setCloseOnEndOfStream(true).bind().start();
+
+		TrafficReplay.Result result = replay.run(new InetSocketAddress("localhost", port));
+		System.out.println(String.format("%-14s %s", name, result));
+
+		server.stopSocketServer();
+
+		Checks.check(name + " failures", "0", String.valueOf(result.getFailures()));
+		Checks.check(name + " requests", String.valueOf(CONNECTIONS * REQUESTS), String.valueOf(result.getRequests()));
+		return result;
+	}
+
+	private static ClientRunnable echo(long handlerNanos)
+	{
+		return client ->
+		{
+			if(client.getInputBuffer().size() == 0)
+				return;
+
+			byte[] bytes = client.getInputBuffer().toByteArray();
+			client.getInputBuffer().reset();
+
+			long end = System.nanoTime() + handlerNanos;
+			while(System.nanoTime() < end)
+			{
+				//spin
+			}
+
+			client.write(bytes);
+		};
+	}
+}